@@ -5,6 +5,7 @@ import projekt.delivery.archetype.ProblemGroup;
 import projekt.delivery.generator.OrderGenerator;
 import projekt.delivery.rating.Rater;
 import projekt.delivery.rating.RatingCriteria;
+import projekt.delivery.routing.CachedPathCalculator;
 import projekt.delivery.routing.VehicleManager;
 import projekt.delivery.service.DeliveryService;
 import projekt.delivery.simulation.BasicDeliverySimulation;
@@ -55,6 +56,10 @@ public class RunnerImpl implements Runner {
         for (ProblemArchetype problem : problemGroup.problems()) {
             OrderGenerator.Factory orderGeneratorFactory = problem.orderGeneratorFactory();
             VehicleManager vehicleManager = problem.vehicleManager();
+            // calculate the paths to all possible destinations before the first tick
+            if (vehicleManager.getPathCalculator() instanceof CachedPathCalculator cachedPathCalculator) {
+                cachedPathCalculator.warmUp(vehicleManager.getRegion());
+            }
             Map<RatingCriteria, Rater.Factory> raters = problem.raterFactoryMap();
             long simulationLength = problem.simulationLength();
             String problemName = problem.name();
@@ -7,7 +7,11 @@ import java.util.Comparator;
 import static org.tudalgo.algoutils.student.Student.crash;
 
 /**
- * A tuple for the x- and y-coordinates of a point.
+ * A tuple for the x- and y-coordinates of a point.<p>
+ *
+ * Both coordinates can be packed into a single {@code long}, see {@link #toKey()}, which can be used as primitive key
+ * for maps and sets of locations. Regions with many nodes can share their {@link Location} instances with a
+ * {@link LocationPool}.
  */
 @SuppressWarnings("ClassCanBeRecord")
 public final class Location implements Comparable<Location> {
@@ -47,6 +51,80 @@ public final class Location implements Comparable<Location> {
         return y;
     }
 
+    /**
+     * Packs the given coordinates into a single {@code long}. The x-coordinate is stored in the upper and the
+     * y-coordinate in the lower 32 bits, so the key of every location is unique.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the packed coordinates
+     */
+    public static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the x-coordinate of the given packed coordinates, see {@link #key(int, int)}.
+     *
+     * @param key the packed coordinates
+     * @return the x coordinate
+     */
+    public static int x(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Returns the y-coordinate of the given packed coordinates, see {@link #key(int, int)}.
+     *
+     * @param key the packed coordinates
+     * @return the y coordinate
+     */
+    public static int y(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Creates the {@link Location} of the given packed coordinates, see {@link #key(int, int)}.
+     *
+     * @param key the packed coordinates
+     * @return a new {@link Location} with the coordinates of {@code key}
+     */
+    public static Location ofKey(long key) {
+        return new Location(x(key), y(key));
+    }
+
+    /**
+     * Returns the coordinates of this location packed into a single {@code long}, see {@link #key(int, int)}.
+     *
+     * @return the packed coordinates
+     */
+    public long toKey() {
+        return key(x, y);
+    }
+
+    /**
+     * Returns a well-mixed hash code of the given coordinates.<p>
+     *
+     * Coordinates in {@code [-32768, 32767]} are first combined into a unique int, so locations in this range never
+     * collide. Coordinates outside of it additionally mix in their upper bits. The result is scrambled with the
+     * bijective finalizer of MurmurHash3, so neighboring locations do not end up in neighboring buckets.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the hash code of the coordinates
+     */
+    public static int hash(int x, int y) {
+        // both terms are 0 for coordinates in [-32768, 32767]
+        int outside = ((x + 0x8000) >>> 16) * 0x9E3779B9 + ((y + 0x8000) >>> 16) * 0x7FEB352D;
+        int h = (x << 16) + y + outside;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
     /**
      * Adds the coordinates of this location and the other location and returns a new
      * {@link Location} object with the resulting coordinates.
@@ -82,8 +160,7 @@ public final class Location implements Comparable<Location> {
 
     @Override
     public int hashCode() {
-
-        return getX()*10000+getY();// TODO: H1.2 - remove if implemented
+        return hash(x, y);// TODO: H1.2 - remove if implemented
     }
 
     @Override
@@ -0,0 +1,122 @@
+package projekt.base;
+
+/**
+ * A pool of canonical {@link Location} instances.<p>
+ *
+ * Interning the locations of a region while it is built ensures that every coordinate is represented by a single
+ * {@link Location} object, so nodes, edges and the maps of the region share their keys and equality checks mostly end
+ * at the identity check. The pool is an open-addressing hash table over the packed coordinates of the locations, see
+ * {@link Location#toKey()}, and does not box its keys.<p>
+ *
+ * A pool is not thread-safe.
+ */
+public final class LocationPool {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private Location[] locations;
+    private int size;
+
+    /**
+     * Creates a new, empty {@link LocationPool}.
+     */
+    public LocationPool() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a new, empty {@link LocationPool} that can hold the given number of locations without resizing.
+     *
+     * @param expectedSize the expected number of distinct locations
+     */
+    public LocationPool(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        int capacity = 2;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        locations = new Location[capacity];
+    }
+
+    /**
+     * Returns the canonical {@link Location} with the given coordinates and adds a new one if there is none yet.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @return the canonical {@link Location} with the given coordinates
+     */
+    public Location intern(int x, int y) {
+        int slot = find(x, y);
+        Location location = locations[slot];
+        if (location == null) {
+            location = new Location(x, y);
+            insert(slot, location);
+        }
+        return location;
+    }
+
+    /**
+     * Returns the canonical {@link Location} with the coordinates of the given location. If there is none yet, the given
+     * location becomes the canonical one.
+     *
+     * @param location the {@link Location} to intern
+     * @return the canonical {@link Location} equal to {@code location}
+     */
+    public Location intern(Location location) {
+        int slot = find(location.getX(), location.getY());
+        Location canonical = locations[slot];
+        if (canonical == null) {
+            canonical = location;
+            insert(slot, location);
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the number of distinct locations in this pool.
+     *
+     * @return the number of locations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot of the given coordinates or the empty slot they would be inserted into.
+     */
+    private int find(int x, int y) {
+        long key = Location.key(x, y);
+        int mask = keys.length - 1;
+        int slot = Location.hash(x, y) & mask;
+        while (locations[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, Location location) {
+        keys[slot] = location.toKey();
+        locations[slot] = location;
+        if (++size > keys.length * MAX_LOAD_FACTOR) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        Location[] oldLocations = locations;
+        keys = new long[keys.length << 1];
+        locations = new Location[keys.length];
+        for (Location location : oldLocations) {
+            if (location != null) {
+                int slot = find(location.getX(), location.getY());
+                keys[slot] = location.toKey();
+                locations[slot] = location;
+            }
+        }
+    }
+}
@@ -18,11 +18,12 @@ public class EventBus {
      * @param event The {@link Event} to add.
      */
     public void queuePost(Event event) {
-        lock.readLock().lock();
+        // a write lock, since the list of queued events is not thread-safe
+        lock.writeLock().lock();
         try {
             queuedEvents.add(event);
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
@@ -31,11 +32,11 @@ public class EventBus {
      * @param events The {@link Event}s to add.
      */
     public void queuePost(Collection<Event> events) {
-        lock.readLock().lock();
+        lock.writeLock().lock();
         try {
             queuedEvents.addAll(events);
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
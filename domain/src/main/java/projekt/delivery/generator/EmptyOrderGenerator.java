@@ -14,6 +14,11 @@ public class EmptyOrderGenerator implements OrderGenerator {
         return List.of();
     }
 
+    @Override
+    public long nextOrderTick(long fromTick) {
+        return -1;
+    }
+
     /**
      * A {@link OrderGenerator.Factory} for creating a new {@link EmptyOrderGenerator}.
      */
@@ -28,6 +28,7 @@ public class FridayOrderGenerator implements OrderGenerator, Serializable {
     private final long lastTick;
     private final int seed;
     private final List<Integer> tickList;
+    private final int[] sortedTicks;
     private Map<Integer, List<ConfirmedOrder>> ordersByTick;
 
     /**
@@ -59,6 +60,7 @@ public class FridayOrderGenerator implements OrderGenerator, Serializable {
             int tick = (int) Math.round(scaledValue);
             tickList.add(tick);
         }
+        sortedTicks = tickList.stream().mapToInt(Integer::intValue).sorted().toArray();
 
         // TODO: H7.1 - remove if implemented
     }
@@ -106,6 +108,19 @@ public class FridayOrderGenerator implements OrderGenerator, Serializable {
          // TODO: H7.1 - remove if implemented
     }
 
+    @Override
+    public long nextOrderTick(long fromTick) {
+        if (fromTick > Integer.MAX_VALUE) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(sortedTicks, (int) Math.max(fromTick, Integer.MIN_VALUE));
+        if (index >= 0) {
+            return fromTick;
+        }
+        index = -index - 1;
+        return index < sortedTicks.length ? sortedTicks[index] : -1;
+    }
+
     /**
      * A {@link OrderGenerator.Factory} for creating a new {@link FridayOrderGenerator}.
      */
@@ -22,6 +22,19 @@ public interface OrderGenerator {
      */
     List<ConfirmedOrder> generateOrders(long tick);
 
+    /**
+     * Returns the first tick from the given tick on for which {@link #generateOrders(long)} may return orders. The ticks
+     * in between can be skipped without missing an order.<p>
+     *
+     * The default implementation does not allow to skip any tick.
+     *
+     * @param fromTick the first tick to look at
+     * @return the first tick {@code >= fromTick} that may have orders or {@code -1} if there are no more orders
+     */
+    default long nextOrderTick(long fromTick) {
+        return fromTick;
+    }
+
     /**
      * A factory for creating a new {@link OrderGenerator}.
      */
@@ -8,10 +8,7 @@ import projekt.delivery.routing.Region;
 import projekt.delivery.routing.VehicleManager;
 import projekt.delivery.simulation.Simulation;
 
-import java.util.Deque;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
 
 import static org.tudalgo.algoutils.student.Student.crash;
 
@@ -79,25 +76,7 @@ public class TravelDistanceRater implements Rater {
         // TODO: H8.3 - remove if implemented
     }
     private double getDistance(Region.Node startNode, Region.Node endNode) {
-        Deque<Region.Node> path = pathCalculator.getPath(startNode, endNode);
-        Iterator<Region.Node> iterator = path.iterator();
-        int counter = 0;
-        Region.Node from = null;
-        Region.Node to;
-        double distance = 0.0;
-        while (iterator.hasNext()) {
-            if(counter == 0) {
-                from = iterator.next();
-                counter = 1;
-            }
-            else {
-                to = iterator.next();
-                distance += Objects.requireNonNull(region.getEdge(from, to)).getDuration();
-                counter = 0;
-            }
-        }
-
-        return distance;
+        return pathCalculator.getDistance(startNode, endNode);
     }
 
     /**
@@ -0,0 +1,151 @@
+package projekt.delivery.routing;
+
+import projekt.base.DistanceCalculator;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PathCalculator} that calculates the shortest path between a start and an end node using A*.<p>
+ *
+ * The distance between a node and the end node according to the {@link DistanceCalculator} of the region is used as
+ * heuristic (see {@link CompiledRegion#lowerBound(int, int)}). The search is directed towards the end node and stops
+ * as soon as it is reached, instead of computing the shortest paths from every node of the region.
+ * {@link #getAllPathsTo(Region.Node)} has no single target and falls back to Dijkstra's algorithm.
+ */
+public class AStarPathCalculator implements PathTreeCalculator {
+
+    private CompiledRegion compiledRegion;
+    private SearchSpace searchSpace;
+
+    @Override
+    public synchronized Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int startId = graph.requireId(start);
+        int endId = graph.requireId(end);
+        if (startId == endId) {
+            return new ArrayDeque<>();
+        }
+        return findPath(graph, startId, endId);
+    }
+
+    @Override
+    public synchronized Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int endId = graph.requireId(end);
+        search(graph, searchSpace, endId, -1);
+
+        Map<Region.Node, Deque<Region.Node>> paths = new HashMap<>(graph.nodeCount() * 2);
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (searchSpace.duration(node) == SearchSpace.INFINITY) {
+                continue;
+            }
+            Deque<Region.Node> path = new ArrayDeque<>();
+            for (int current = node; current != endId; ) {
+                current = searchSpace.predecessor(current);
+                path.addLast(graph.node(current));
+            }
+            paths.put(graph.node(node), path);
+        }
+        return paths;
+    }
+
+    @Override
+    public long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        Region region = DistanceTables.regionOf(sources, targets);
+        if (region == null) {
+            return new long[sources.size()][targets.size()];
+        }
+        CompiledRegion graph;
+        synchronized (this) {
+            graph = compile(region);
+        }
+        return DistanceTables.compute(graph, sources, targets);
+    }
+
+    @Override
+    public synchronized PathTree getPathTree(Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int endId = graph.requireId(end);
+        search(graph, searchSpace, endId, -1);
+        return PathTree.of(graph, searchSpace, endId);
+    }
+
+    /**
+     * Calculates the shortest path between two different nodes.
+     *
+     * @param graph the compiled region to search
+     * @param start the id of the start node
+     * @param end   the id of the end node
+     * @return the path from {@code start} (excluded) to {@code end} (included)
+     * @throws IllegalArgumentException if there is no path from {@code start} to {@code end}
+     */
+    Deque<Region.Node> findPath(CompiledRegion graph, int start, int end) {
+        search(graph, searchSpace, start, end);
+        if (searchSpace.duration(end) == SearchSpace.INFINITY) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(graph.node(start), graph.node(end)));
+        }
+        Deque<Region.Node> path = new ArrayDeque<>();
+        for (int node = end; node != start; node = searchSpace.predecessor(node)) {
+            path.addFirst(graph.node(node));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the {@link CompiledRegion} of the given {@link Region}. The region is only compiled again if it differs
+     * from the region of the previous query.
+     *
+     * @param region the {@link Region} of the current query
+     * @return the compiled {@link Region}
+     */
+    CompiledRegion compile(Region region) {
+        if (compiledRegion == null || compiledRegion.getRegion() != region) {
+            compiledRegion = CompiledRegion.of(region);
+            searchSpace = new SearchSpace(compiledRegion.nodeCount());
+            onCompile(compiledRegion);
+        }
+        return compiledRegion;
+    }
+
+    /**
+     * Called after a new {@link Region} was compiled. Subclasses may allocate additional search state here.
+     *
+     * @param graph the newly compiled region
+     */
+    void onCompile(CompiledRegion graph) {
+    }
+
+    /**
+     * Executes A* from {@code source} to {@code target}. If {@code target} is negative, no heuristic is used and
+     * the search settles every reachable node like Dijkstra's algorithm.
+     *
+     * @param graph  the compiled region to search
+     * @param space  the search space to store the labels in, it is reset before the search
+     * @param source the id of the node to start at
+     * @param target the id of the node to search for or {@code -1}
+     */
+    private static void search(CompiledRegion graph, SearchSpace space, int source, int target) {
+        space.reset();
+        IndexedHeap queue = space.queue();
+        space.relax(source, 0, -1);
+        queue.insertOrDecrease(source, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (u == target) {
+                return;
+            }
+            long durationU = space.duration(u);
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                long duration = durationU + graph.arcDuration(arc);
+                if (space.relax(v, duration, u)) {
+                    queue.insertOrDecrease(v, target < 0 ? duration : duration + graph.lowerBound(v, target));
+                }
+            }
+        }
+    }
+}
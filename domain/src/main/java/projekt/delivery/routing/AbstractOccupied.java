@@ -1,10 +1,11 @@
 package projekt.delivery.routing;
 
 import org.jetbrains.annotations.Nullable;
+import projekt.delivery.event.Event;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 /**
@@ -15,7 +16,17 @@ abstract class AbstractOccupied<C extends Region.Component<? super C>> implement
 
     protected final C component;
     protected final VehicleManager vehicleManager;
-    protected final Map<VehicleImpl, VehicleStats> vehicles = new HashMap<>();
+    /**
+     * The vehicles on this component. Vehicles are compared by identity, so the map stores its entries in a single
+     * array and adding or removing a vehicle does not allocate anything.
+     */
+    protected final Map<VehicleImpl, VehicleStats> vehicles = new IdentityHashMap<>();
+
+    /**
+     * The shard whose moves may change this component when vehicles are moved in parallel, or {@code -1} if it is
+     * only changed by sequential moves. See {@link ParallelMovement}.
+     */
+    int shard = -1;
     private final Collection<Vehicle> unmodifiableVehicles =
         Collections.unmodifiableCollection(vehicles.keySet());
 
@@ -39,14 +50,45 @@ abstract class AbstractOccupied<C extends Region.Component<? super C>> implement
         return unmodifiableVehicles;
     }
 
+    /**
+     * Posts the given event about a vehicle moving onto this component.
+     *
+     * @param event the event
+     */
+    protected void postMovementEvent(Event event) {
+        if (!(vehicleManager instanceof VehicleManagerImpl impl) || !impl.scheduler.collect(event)) {
+            vehicleManager.getEventBus().queuePost(event);
+        }
+    }
+
     @Override
     public void reset() {
         vehicles.clear();
     }
 
+    /**
+     * Moves the given vehicle from the given previous component to this component. The stats of the vehicle on the
+     * previous component are reused, so a move does not allocate anything.
+     *
+     * @param vehicle     the vehicle
+     * @param previous    the component {@code vehicle} is currently on
+     * @param currentTick the tick {@code vehicle} arrives at this component
+     * @return {@code false} if {@code vehicle} was not found on {@code previous}
+     */
+    protected boolean moveVehicle(VehicleImpl vehicle, AbstractOccupied<?> previous, long currentTick) {
+        VehicleStats stats = previous.vehicles.remove(vehicle);
+        if (stats == null) {
+            return false;
+        }
+        stats.arrived = currentTick;
+        stats.previous = previous;
+        vehicles.put(vehicle, stats);
+        return true;
+    }
+
     protected static class VehicleStats {
-        final long arrived;
-        final @Nullable VehicleManager.Occupied<?> previous;
+        long arrived;
+        @Nullable VehicleManager.Occupied<?> previous;
 
         public VehicleStats(long arrived, @Nullable VehicleManager.Occupied<?> previous) {
             this.arrived = arrived;
@@ -0,0 +1,90 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A variant of the {@link AStarPathCalculator} that searches from the start and the end node simultaneously.<p>
+ *
+ * Both searches use the average of the forward and backward heuristic as potential, which keeps the reduced edge
+ * durations of both directions non-negative. With the potential {@code p(v) = (h_end(v) - h_start(v)) / 2} the
+ * search can stop as soon as the smallest keys of both queues add up to at least the best path found so far.
+ * To stay in integer arithmetic all keys are doubled.
+ */
+public class BidirectionalAStarPathCalculator extends AStarPathCalculator {
+
+    private SearchSpace forward;
+    private SearchSpace backward;
+
+    @Override
+    void onCompile(CompiledRegion graph) {
+        forward = new SearchSpace(graph.nodeCount());
+        backward = new SearchSpace(graph.nodeCount());
+    }
+
+    @Override
+    Deque<Region.Node> findPath(CompiledRegion graph, int start, int end) {
+        forward.reset();
+        backward.reset();
+        forward.relax(start, 0, -1);
+        forward.queue().insertOrDecrease(start, potential(graph, start, start, end));
+        backward.relax(end, 0, -1);
+        backward.queue().insertOrDecrease(end, -potential(graph, end, start, end));
+
+        long best = SearchSpace.INFINITY;
+        int meeting = -1;
+        while (!forward.queue().isEmpty() && !backward.queue().isEmpty()) {
+            long forwardKey = forward.queue().peekKey();
+            long backwardKey = backward.queue().peekKey();
+            if (best != SearchSpace.INFINITY && forwardKey + backwardKey >= 2 * best) {
+                break;
+            }
+            boolean isForward = forwardKey <= backwardKey;
+            SearchSpace space = isForward ? forward : backward;
+            SearchSpace other = isForward ? backward : forward;
+            int u = space.queue().poll();
+            long durationU = space.duration(u);
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                long duration = durationU + graph.arcDuration(arc);
+                if (!space.relax(v, duration, u)) {
+                    continue;
+                }
+                long potential = potential(graph, v, start, end);
+                space.queue().insertOrDecrease(v, 2 * duration + (isForward ? potential : -potential));
+                long otherDuration = other.duration(v);
+                if (otherDuration != SearchSpace.INFINITY && duration + otherDuration < best) {
+                    best = duration + otherDuration;
+                    meeting = v;
+                }
+            }
+        }
+
+        if (meeting < 0) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(graph.node(start), graph.node(end)));
+        }
+        Deque<Region.Node> path = new ArrayDeque<>();
+        for (int node = meeting; node != start; node = forward.predecessor(node)) {
+            path.addFirst(graph.node(node));
+        }
+        for (int node = meeting; node != end; ) {
+            node = backward.predecessor(node);
+            path.addLast(graph.node(node));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the doubled potential {@code h_end(node) - h_start(node)} of the forward search.
+     * The backward search uses the negated potential.
+     *
+     * @param graph the compiled region
+     * @param node  the id of the node
+     * @param start the id of the start node
+     * @param end   the id of the end node
+     * @return the doubled forward potential of {@code node}
+     */
+    private static long potential(CompiledRegion graph, int node, int start, int end) {
+        return graph.lowerBound(node, end) - graph.lowerBound(node, start);
+    }
+}
@@ -0,0 +1,342 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+import projekt.base.DistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A {@link Region.Builder} for large regions, e.g. imported street networks with millions of edges.<p>
+ *
+ * In contrast to the {@link RegionBuilderImpl}, no builder object is created per component. Nodes and edges are stored
+ * in growable primitive arrays that can be pre-sized, their locations as packed keys, see {@link Location#toKey()}.
+ * Duplicate nodes and edges are detected with open-addressing hash tables over these arrays, so every method except
+ * {@link #build()} takes amortized constant time. {@link #build()} creates all components in a single pass over the
+ * arrays.<p>
+ *
+ * Edges are added to the region in the order they were added to the builder.
+ */
+class BulkRegionBuilderImpl implements Region.Builder {
+
+    private static final byte NODE = 0;
+    private static final byte NEIGHBORHOOD = 1;
+    private static final byte RESTAURANT = 2;
+    private static final byte REMOVED = -1;
+
+    /**
+     * The index of a node or the inverted index ({@code ~index}) of an edge by name.
+     */
+    private final Map<String, Integer> names;
+    private final Map<Integer, List<String>> availableFoods = new HashMap<>();
+    private DistanceCalculator distanceCalc;
+    private @Nullable ToLongBiFunction<Location, Location> durationFunction;
+
+    private int nodeCount;
+    private String[] nodeNames;
+    private long[] nodeKeys;
+    private byte[] nodeTypes;
+    private int[] nodeTable;
+
+    private int edgeCount;
+    private String[] edgeNames;
+    private long[] edgeKeysA;
+    private long[] edgeKeysB;
+    private boolean[] edgeRemoved;
+    private int[] edgeTable;
+
+    /**
+     * Creates a new {@link BulkRegionBuilderImpl} whose storage can hold the given number of components without growing.
+     *
+     * @param expectedNodeCount the expected number of nodes
+     * @param expectedEdgeCount the expected number of edges
+     */
+    BulkRegionBuilderImpl(int expectedNodeCount, int expectedEdgeCount) {
+        if (expectedNodeCount < 0 || expectedEdgeCount < 0) {
+            throw new IllegalArgumentException("The expected number of components must not be negative");
+        }
+        names = new HashMap<>((int) Math.min(1 << 30, (expectedNodeCount + expectedEdgeCount) * 4L / 3 + 1));
+        nodeNames = new String[expectedNodeCount];
+        nodeKeys = new long[expectedNodeCount];
+        nodeTypes = new byte[expectedNodeCount];
+        nodeTable = newTable(expectedNodeCount);
+        edgeNames = new String[expectedEdgeCount];
+        edgeKeysA = new long[expectedEdgeCount];
+        edgeKeysB = new long[expectedEdgeCount];
+        edgeRemoved = new boolean[expectedEdgeCount];
+        edgeTable = newTable(expectedEdgeCount);
+    }
+
+    @Override
+    public Region.Builder distanceCalculator(DistanceCalculator distanceCalculator) {
+        this.distanceCalc = distanceCalculator;
+        return this;
+    }
+
+    @Override
+    public Region.Builder durationFunction(@Nullable ToLongBiFunction<Location, Location> durationFunction) {
+        this.durationFunction = durationFunction;
+        return this;
+    }
+
+    @Override
+    public Region.Builder addNode(String name, Location location) {
+        return addNode(name, location, NODE);
+    }
+
+    @Override
+    public boolean checkNode(String name, Location location) {
+        if (name == null || location == null || names.containsKey(name)) {
+            return false;
+        }
+        int index = nodeTable[findNode(location.toKey())] - 1;
+        return index < 0 || nodeTypes[index] == REMOVED;
+    }
+
+    @Override
+    public Region.Builder addNeighborhood(String name, Location location) {
+        return addNode(name, location, NEIGHBORHOOD);
+    }
+
+    @Override
+    public Region.Builder addRestaurant(String name, Location location, List<String> availableFood) {
+        addNode(name, location, RESTAURANT);
+        availableFoods.put(nodeCount - 1, availableFood);
+        return this;
+    }
+
+    @Override
+    public Region.Builder addRestaurant(Location location, Region.Restaurant.Preset restaurantPreset) {
+        return addRestaurant(restaurantPreset.name(), location, restaurantPreset.availableFoods());
+    }
+
+    @Override
+    public Region.Builder addEdge(String name, Location locationA, Location locationB) {
+        // the packed keys compare y as unsigned, so order the endpoints like the locations
+        boolean ordered = locationA.compareTo(locationB) <= 0;
+        long keyA = (ordered ? locationA : locationB).toKey();
+        long keyB = (ordered ? locationB : locationA).toKey();
+        addName(name, ~edgeCount);
+        int slot = findEdge(keyA, keyB);
+        int existing = edgeTable[slot] - 1;
+        if (existing >= 0 && !edgeRemoved[existing]) {
+            names.remove(name);
+            throw new IllegalArgumentException("Duplicate edge connecting %s to %s".formatted(
+                Location.ofKey(keyA), Location.ofKey(keyB)));
+        }
+        if (edgeCount == edgeNames.length) {
+            int capacity = grow(edgeCount);
+            edgeNames = Arrays.copyOf(edgeNames, capacity);
+            edgeKeysA = Arrays.copyOf(edgeKeysA, capacity);
+            edgeKeysB = Arrays.copyOf(edgeKeysB, capacity);
+            edgeRemoved = Arrays.copyOf(edgeRemoved, capacity);
+        }
+        edgeNames[edgeCount] = name;
+        edgeKeysA[edgeCount] = keyA;
+        edgeKeysB[edgeCount] = keyB;
+        edgeTable[slot] = ++edgeCount;
+        if (existing < 0 && edgeCount * 2 > edgeTable.length) {
+            edgeTable = newTable(edgeTable.length);
+            for (int edge = 0; edge < edgeCount; edge++) {
+                edgeTable[findEdge(edgeKeysA[edge], edgeKeysB[edge])] = edge + 1;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public boolean checkEdge(String name, Location locationA, Location locationB) {
+        if (name == null || locationA == null || locationB == null || names.containsKey(name)) {
+            return false;
+        }
+        if (!containsNode(locationA.toKey()) || !containsNode(locationB.toKey())) {
+            return false;
+        }
+        // the packed keys compare y as unsigned, so order the endpoints like the locations
+        boolean ordered = locationA.compareTo(locationB) <= 0;
+        long keyA = (ordered ? locationA : locationB).toKey();
+        long keyB = (ordered ? locationB : locationA).toKey();
+        int index = edgeTable[findEdge(keyA, keyB)] - 1;
+        return index < 0 || edgeRemoved[index];
+    }
+
+    @Override
+    public Region.Builder removeComponent(String name) {
+        Integer index = names.remove(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No Component with this name exists");
+        }
+        // removed components keep their slots in the tables, so their locations can be reused by new components
+        if (index >= 0) {
+            nodeTypes[index] = REMOVED;
+            availableFoods.remove(index);
+        } else {
+            edgeRemoved[~index] = true;
+        }
+        return this;
+    }
+
+    @Override
+    public Region build() {
+        Objects.requireNonNull(distanceCalc, "distanceCalculator");
+
+        // resolve the endpoints of all edges and count the connections of every node
+        int[] edgeNodesA = new int[edgeCount];
+        int[] edgeNodesB = new int[edgeCount];
+        int[] firstConnection = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (edgeRemoved[edge]) {
+                continue;
+            }
+            int a = nodeTable[findNode(edgeKeysA[edge])] - 1;
+            int b = nodeTable[findNode(edgeKeysB[edge])] - 1;
+            if (a < 0 || b < 0 || nodeTypes[a] == REMOVED || nodeTypes[b] == REMOVED) {
+                throw new IllegalArgumentException("Can't create an edge if one of the connected nodes wasn't added to the region");
+            }
+            edgeNodesA[edge] = a;
+            edgeNodesB[edge] = b;
+            firstConnection[a + 1]++;
+            if (a != b) {
+                firstConnection[b + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            firstConnection[node + 1] += firstConnection[node];
+        }
+
+        Location[] locations = new Location[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            locations[node] = Location.ofKey(nodeKeys[node]);
+        }
+        Location[] connections = new Location[firstConnection[nodeCount]];
+        int[] cursor = Arrays.copyOf(firstConnection, nodeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (!edgeRemoved[edge]) {
+                int a = edgeNodesA[edge];
+                int b = edgeNodesB[edge];
+                connections[cursor[a]++] = locations[b];
+                if (a != b) {
+                    connections[cursor[b]++] = locations[a];
+                }
+            }
+        }
+
+        RegionImpl region = new RegionImpl(distanceCalc, nodeCount, edgeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeTypes[node] == REMOVED) {
+                continue;
+            }
+            Set<Location> nodeConnections = Set.of(
+                Arrays.copyOfRange(connections, firstConnection[node], firstConnection[node + 1]));
+            region.putNode(switch (nodeTypes[node]) {
+                case NEIGHBORHOOD -> new NeighborhoodImpl(region, nodeNames[node], locations[node], nodeConnections);
+                case RESTAURANT -> new RestaurantImpl(region, nodeNames[node], locations[node], nodeConnections,
+                    availableFoods.get(node));
+                default -> new NodeImpl(region, nodeNames[node], locations[node], nodeConnections);
+            });
+        }
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (!edgeRemoved[edge]) {
+                Location locationA = locations[edgeNodesA[edge]];
+                Location locationB = locations[edgeNodesB[edge]];
+                long duration = RegionBuilderImpl.duration(locationA, locationB, distanceCalc, durationFunction);
+                region.putEdge(new EdgeImpl(region, edgeNames[edge], locationA, locationB, duration));
+            }
+        }
+        region.freeze();
+        return region;
+    }
+
+    private Region.Builder addNode(String name, Location location, byte type) {
+        long key = location.toKey();
+        addName(name, nodeCount);
+        int slot = findNode(key);
+        int existing = nodeTable[slot] - 1;
+        if (existing >= 0 && nodeTypes[existing] != REMOVED) {
+            names.remove(name);
+            throw new IllegalArgumentException("Duplicate node at location " + location);
+        }
+        if (nodeCount == nodeNames.length) {
+            int capacity = grow(nodeCount);
+            nodeNames = Arrays.copyOf(nodeNames, capacity);
+            nodeKeys = Arrays.copyOf(nodeKeys, capacity);
+            nodeTypes = Arrays.copyOf(nodeTypes, capacity);
+        }
+        nodeNames[nodeCount] = name;
+        nodeKeys[nodeCount] = key;
+        nodeTypes[nodeCount] = type;
+        nodeTable[slot] = ++nodeCount;
+        if (existing < 0 && nodeCount * 2 > nodeTable.length) {
+            nodeTable = newTable(nodeTable.length);
+            for (int node = 0; node < nodeCount; node++) {
+                nodeTable[findNode(nodeKeys[node])] = node + 1;
+            }
+        }
+        return this;
+    }
+
+    private void addName(String name, int index) {
+        if (names.putIfAbsent(name, index) != null) {
+            throw new IllegalArgumentException(String.format("Duplicate name '%s'", name));
+        }
+    }
+
+    private boolean containsNode(long key) {
+        int index = nodeTable[findNode(key)] - 1;
+        return index >= 0 && nodeTypes[index] != REMOVED;
+    }
+
+    /**
+     * Returns the slot of {@link #nodeTable} that contains the node with the given key or the empty slot it would be
+     * stored in. Slots contain the index of their node plus one, so empty slots are {@code 0}.
+     */
+    private int findNode(long key) {
+        int mask = nodeTable.length - 1;
+        int slot = mix(key) & mask;
+        while (nodeTable[slot] != 0 && nodeKeys[nodeTable[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of {@link #edgeTable} that contains the edge with the given keys or the empty slot it would be
+     * stored in, see {@link #findNode(long)}.
+     */
+    private int findEdge(long keyA, long keyB) {
+        int mask = edgeTable.length - 1;
+        int slot = mix(keyA * 31 + keyB) & mask;
+        while (edgeTable[slot] != 0
+            && (edgeKeysA[edgeTable[slot] - 1] != keyA || edgeKeysB[edgeTable[slot] - 1] != keyB)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return (int) (key ^ (key >>> 33));
+    }
+
+    /**
+     * Creates an empty table that can hold the given number of entries with a load factor of at most 0.5.
+     */
+    private static int[] newTable(int entries) {
+        int capacity = 2;
+        while (capacity < entries * 2L && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        return new int[capacity];
+    }
+
+    private static int grow(int capacity) {
+        return Math.max(16, capacity + (capacity >> 1));
+    }
+}
@@ -3,31 +3,66 @@ package projekt.delivery.routing;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * A {@link PathCalculator} that is based on another {@link PathCalculator} and caches its result for later use.
+ * A {@link PathCalculator} that is based on another {@link PathCalculator} and caches its result for later use.<p>
+ *
+ * The cache stores the paths to up to {@code size} end nodes and evicts the least recently used end node when it is
+ * full. It is split into independently locked segments, so it can be shared by simulations running in parallel.
+ * Cached paths are handed out as copy-on-write views, so a cache hit does not copy any path. The paths may be modified
+ * by the caller without affecting the cache. How the paths to an end node are stored is selected by the {@link Mode}.
  */
 public class CachedPathCalculator implements PathCalculator {
 
+    /**
+     * The maximum number of segments of the cache.
+     */
+    private static final int MAX_SEGMENT_COUNT = 16;
+
     private final PathCalculator delegate;
-    private final Map<Region.Node, Map<Region.Node, Deque<Region.Node>>> cache = new HashMap<>();
     private final int size;
-    private final Set<Region.Node> accessOrder;
+    private final Mode mode;
+    private final Segment[] segments;
+    private volatile @Nullable CompiledRegion compiledRegion;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
 
     /**
      * Creates a new {@link CachedPathCalculator}.
      * @param delegate The {@link PathCalculator} this {@link CachedPathCalculator} uses to calculate the paths.
      * @param size The size of the cache.
+     * @param mode The way the paths to an end node are stored.
      */
-    public CachedPathCalculator(PathCalculator delegate, int size) {
+    public CachedPathCalculator(PathCalculator delegate, int size, Mode mode) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
         this.delegate = delegate;
         this.size = size;
-        this.accessOrder = new LinkedHashSet<>(size);
+        this.mode = mode;
+        int segmentCount = Integer.highestOneBit(Math.min(size, MAX_SEGMENT_COUNT));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(size / segmentCount + (i < size % segmentCount ? 1 : 0));
+        }
     }
 
     /**
-     * Creates a new {@link CachedPathCalculator}.<p>
+     * Creates a new {@link CachedPathCalculator} that stores the paths as {@link Mode#PATH_TREES}.
+     * @param delegate The {@link PathCalculator} this {@link CachedPathCalculator} uses to calculate the paths.
+     * @param size The size of the cache.
+     */
+    public CachedPathCalculator(PathCalculator delegate, int size) {
+        this(delegate, size, Mode.PATH_TREES);
+    }
+
+    /**
+     * Creates a new {@link CachedPathCalculator} that stores the paths as {@link Mode#PATH_TREES}.<p>
      * The size of the cache will be set to 1024
      * @param delegate The {@link PathCalculator} this {@link CachedPathCalculator} uses to calculate the paths.
      */
@@ -37,41 +72,272 @@ public class CachedPathCalculator implements PathCalculator {
 
     @Override
     public Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
-        return getAllPathsTo(end).get(start);
+        Deque<Region.Node> path = getAllPathsTo(end).get(start);
+        if (path == null) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+        }
+        return path;
     }
 
     public PathCalculator getDelegate() {
         return delegate;
     }
 
+    /**
+     * Returns the maximum number of end nodes whose paths are cached.
+     * @return The size of the cache.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the way the paths to an end node are stored.
+     * @return The {@link Mode} of the cache.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
     @Override
     public Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
-        @Nullable Map<Region.Node, Deque<Region.Node>> path = cache.get(end);
-        if (path != null) {
-            return copyPath(path);
+        Segment segment = segmentOf(end);
+        @Nullable Map<Region.Node, Deque<Region.Node>> paths = segment.get(end);
+        if (paths != null) {
+            hitCount.increment();
+            return paths;
         }
+        missCount.increment();
 
-        path = delegate.getAllPathsTo(end);
+        // the delegate is called without holding the lock, so other end nodes of this segment are not blocked
+        long startTime = System.nanoTime();
+        paths = load(end);
+        totalLoadTime.add(System.nanoTime() - startTime);
+        return segment.putIfAbsent(end, paths);
+    }
+
+    private Map<Region.Node, Deque<Region.Node>> load(Region.Node end) {
+        if (mode == Mode.ALL_PATHS) {
+            return new CachedPaths(delegate.getAllPathsTo(end));
+        }
+        if (delegate instanceof PathTreeCalculator pathTreeCalculator) {
+            return pathTreeCalculator.getPathTree(end).paths();
+        }
+        return PathTree.of(compile(end.getRegion()), end, delegate.getAllPathsTo(end)).paths();
+    }
 
-        // Limit cache size
-        if (accessOrder.size() >= size) {
-            Iterator<Region.Node> iterator = accessOrder.iterator();
-            cache.remove(iterator.next());
-            iterator.remove();
+    private CompiledRegion compile(Region region) {
+        @Nullable CompiledRegion graph = compiledRegion;
+        if (graph == null || graph.getRegion() != region) {
+            synchronized (this) {
+                graph = compiledRegion;
+                if (graph == null || graph.getRegion() != region) {
+                    graph = CompiledRegion.of(region);
+                    compiledRegion = graph;
+                }
+            }
         }
+        return graph;
+    }
+
+    /**
+     * Fills the cache with the paths to all restaurants and neighborhoods of the given {@link Region}, which are the
+     * only nodes vehicles are sent to. The paths are calculated in parallel on the common {@link ForkJoinPool}, so
+     * the delegate should support concurrent calls to profit from it. Only as many end nodes are calculated as fit
+     * into the segment of the cache they belong to, so the warm-up does not evict its own results. The calculations
+     * are counted as misses.
+     * @param region The {@link Region} whose restaurants and neighborhoods are the end nodes of the paths.
+     */
+    public void warmUp(Region region) {
+        List<Region.Node> ends = new ArrayList<>();
+        int[] counts = new int[segments.length];
+        for (Region.Node node : region.getNodes()) {
+            if (node instanceof Region.Restaurant || node instanceof Region.Neighborhood) {
+                int segment = segmentIndex(node);
+                if (counts[segment] < segments[segment].capacity) {
+                    counts[segment]++;
+                    ends.add(node);
+                }
+            }
+        }
+        warmUp(ends);
+    }
 
-        // Update access order if the element already exists
-        accessOrder.remove(end);
-        accessOrder.add(end);
-        cache.put(end, path);
+    /**
+     * Fills the cache with the paths to the given end nodes, which are calculated in parallel on the common
+     * {@link ForkJoinPool}.
+     * @param ends The end nodes of the paths.
+     */
+    public void warmUp(Collection<? extends Region.Node> ends) {
+        ends.parallelStream().forEach(this::getAllPathsTo);
+    }
 
-        return copyPath(path);
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     * @return The current {@link Statistics}.
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), totalLoadTime.sum());
     }
 
-    private Map<Region.Node, Deque<Region.Node>> copyPath(Map<Region.Node, Deque<Region.Node>> path) {
-        return path.entrySet().stream()
-            .map(entry -> Map.entry(entry.getKey(), new LinkedList<>(entry.getValue())))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    /**
+     * Removes all cached paths. The statistics are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
     }
 
+    private Segment segmentOf(Region.Node node) {
+        return segments[segmentIndex(node)];
+    }
+
+    private int segmentIndex(Region.Node node) {
+        int hash = node.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (segments.length - 1);
+    }
+
+    /**
+     * The ways a {@link CachedPathCalculator} can store the paths to an end node.
+     */
+    public enum Mode {
+
+        /**
+         * Every path to the end node is stored as an array of its nodes. This needs memory proportional to the
+         * number of nodes times the length of the paths.
+         */
+        ALL_PATHS,
+
+        /**
+         * Only the next node on the path of every node is stored as a tree of int ids, which needs memory proportional
+         * to the number of nodes. Paths are views that walk the tree and share their common suffixes. If the delegate
+         * cannot return the tree directly, it is derived from the paths returned by the delegate.
+         */
+        PATH_TREES
+    }
+
+    /**
+     * The statistics of a {@link CachedPathCalculator}.
+     * @param hitCount The number of calls that were answered from the cache.
+     * @param missCount The number of calls that had to be calculated by the delegate.
+     * @param evictionCount The number of end nodes that were removed from the cache because it was full.
+     * @param totalLoadTime The total time in nanoseconds the delegate needed to calculate the missed paths.
+     */
+    public record Statistics(long hitCount, long missCount, long evictionCount, long totalLoadTime) {
+
+        /**
+         * Returns the ratio of calls that were answered from the cache or {@code 1.0} if there were no calls.
+         * @return The hit rate of the cache.
+         */
+        public double hitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        /**
+         * Returns the average time in nanoseconds the delegate needed for a miss or {@code 0.0} if there were no misses.
+         * @return The average load time.
+         */
+        public double averageLoadTime() {
+            return missCount == 0 ? 0.0 : (double) totalLoadTime / missCount;
+        }
+    }
+
+    /**
+     * A part of the cache with its own lock and its own least recently used order.
+     */
+    private final class Segment {
+
+        private final int capacity;
+        private final LinkedHashMap<Region.Node, Map<Region.Node, Deque<Region.Node>>> entries;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Region.Node, Map<Region.Node, Deque<Region.Node>>> eldest) {
+                    if (size() > capacity) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized @Nullable Map<Region.Node, Deque<Region.Node>> get(Region.Node end) {
+            return entries.get(end);
+        }
+
+        synchronized Map<Region.Node, Deque<Region.Node>> putIfAbsent(Region.Node end,
+                                                                       Map<Region.Node, Deque<Region.Node>> paths) {
+            @Nullable Map<Region.Node, Deque<Region.Node>> present = entries.putIfAbsent(end, paths);
+            return present != null ? present : paths;
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+
+    /**
+     * The unmodifiable cached paths to a single end node. The paths are stored as arrays and every lookup returns a
+     * new {@link SharedPathDeque} view of the stored array.
+     */
+    private static final class CachedPaths extends AbstractMap<Region.Node, Deque<Region.Node>> {
+
+        private final Map<Region.Node, Region.Node[]> paths;
+
+        CachedPaths(Map<Region.Node, Deque<Region.Node>> paths) {
+            this.paths = new HashMap<>(paths.size() * 4 / 3 + 1);
+            for (Map.Entry<Region.Node, Deque<Region.Node>> entry : paths.entrySet()) {
+                this.paths.put(entry.getKey(), entry.getValue().toArray(Region.Node[]::new));
+            }
+        }
+
+        @Override
+        public int size() {
+            return paths.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return paths.containsKey(key);
+        }
+
+        @Override
+        public @Nullable Deque<Region.Node> get(Object key) {
+            Region.Node[] path = paths.get(key);
+            return path != null ? SharedPathDeque.of(path) : null;
+        }
+
+        @Override
+        public Set<Entry<Region.Node, Deque<Region.Node>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return paths.size();
+                }
+
+                @Override
+                public Iterator<Entry<Region.Node, Deque<Region.Node>>> iterator() {
+                    Iterator<Entry<Region.Node, Region.Node[]>> iterator = paths.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Region.Node, Deque<Region.Node>> next() {
+                            Entry<Region.Node, Region.Node[]> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), SharedPathDeque.of(entry.getValue()));
+                        }
+                    };
+                }
+            };
+        }
+    }
 }
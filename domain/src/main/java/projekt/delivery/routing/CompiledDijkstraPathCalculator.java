@@ -0,0 +1,158 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PathCalculator} that calculates shortest paths using Dijkstra's algorithm on a {@link CompiledRegion}.<p>
+ *
+ * In contrast to the {@link DijkstraPathCalculator}, no wrapper objects or boxed durations are created per query.
+ * The region is compiled once into an int-indexed adjacency array and all searches work on primitive
+ * distance and predecessor arrays and an {@link IndexedHeap} which are reused between queries.
+ * The snapshot is recompiled whenever a query is made for a node of a different {@link Region}.<p>
+ *
+ * {@link #getPath(Region.Node, Region.Node)} stops as soon as the start node is settled, so local trips only explore
+ * the surroundings of their end node. Every thread keeps its own {@link SearchSpace}, which is reset in constant time,
+ * so queries of different threads do not block each other.
+ */
+public class CompiledDijkstraPathCalculator implements PathTreeCalculator {
+
+    private volatile CompiledRegion compiledRegion;
+    private final ThreadLocal<SearchSpace> searchSpaces = new ThreadLocal<>();
+
+    @Override
+    public Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int startId = graph.requireId(start);
+        int endId = graph.requireId(end);
+        SearchSpace space = searchSpace(graph);
+        execute(graph, space, endId, startId);
+        if (space.duration(startId) == SearchSpace.INFINITY) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+        }
+        return reconstructPath(graph, space, startId, endId);
+    }
+
+    @Override
+    public Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int endId = graph.requireId(end);
+        SearchSpace space = searchSpace(graph);
+        execute(graph, space, endId, -1);
+
+        Map<Region.Node, Deque<Region.Node>> paths = new HashMap<>(graph.nodeCount() * 2);
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            // unreachable nodes have no path to end
+            if (space.duration(node) != SearchSpace.INFINITY) {
+                paths.put(graph.node(node), reconstructPath(graph, space, node, endId));
+            }
+        }
+        return paths;
+    }
+
+    @Override
+    public long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        Region region = DistanceTables.regionOf(sources, targets);
+        if (region == null) {
+            return new long[sources.size()][targets.size()];
+        }
+        return DistanceTables.compute(compile(region), sources, targets);
+    }
+
+    @Override
+    public PathTree getPathTree(Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int endId = graph.requireId(end);
+        SearchSpace space = searchSpace(graph);
+        execute(graph, space, endId, -1);
+        return PathTree.of(graph, space, endId);
+    }
+
+    /**
+     * Returns the {@link CompiledRegion} of the given {@link Region}. The region is only compiled again if it differs
+     * from the region of the previous query.
+     *
+     * @param region the {@link Region} of the current query
+     * @return the compiled {@link Region}
+     */
+    private CompiledRegion compile(Region region) {
+        CompiledRegion graph = compiledRegion;
+        if (graph == null || graph.getRegion() != region) {
+            synchronized (this) {
+                graph = compiledRegion;
+                if (graph == null || graph.getRegion() != region) {
+                    graph = CompiledRegion.of(region);
+                    compiledRegion = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the {@link SearchSpace} of the current thread and replaces it if it does not fit the given region.
+     *
+     * @param graph the compiled region to search
+     * @return the search space of the current thread
+     */
+    private SearchSpace searchSpace(CompiledRegion graph) {
+        SearchSpace space = searchSpaces.get();
+        if (space == null || space.nodeCount() != graph.nodeCount()) {
+            space = new SearchSpace(graph.nodeCount());
+            searchSpaces.set(space);
+        }
+        return space;
+    }
+
+    /**
+     * Executes Dijkstra's algorithm starting at the node with the given id.
+     * Afterwards, the predecessor of every settled node is the next node on its shortest path to {@code source}.
+     *
+     * @param graph  the compiled region to search
+     * @param space  the search space to store the labels in, it is reset before the search
+     * @param source the id of the node to start at
+     * @param target the id of the node after whose settlement the search stops or {@code -1} to settle all nodes
+     */
+    private static void execute(CompiledRegion graph, SearchSpace space, int source, int target) {
+        space.reset();
+        IndexedHeap queue = space.queue();
+        space.relax(source, 0, -1);
+        queue.insertOrDecrease(source, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (u == target) {
+                return;
+            }
+            long durationU = space.duration(u);
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                long duration = durationU + graph.arcDuration(arc);
+                if (space.relax(v, duration, u)) {
+                    queue.insertOrDecrease(v, duration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reconstructs the path from {@code start} to {@code end} after
+     * {@link #execute(CompiledRegion, SearchSpace, int, int)} was performed with {@code end} as source.
+     *
+     * @param graph the compiled region that was searched
+     * @param space the search space of the search
+     * @param start the id of the start node of the path
+     * @param end   the id of the end node of the path
+     * @return the path from {@code start} (excluded) to {@code end} (included)
+     */
+    private static Deque<Region.Node> reconstructPath(CompiledRegion graph, SearchSpace space, int start, int end) {
+        Deque<Region.Node> path = new ArrayDeque<>();
+        for (int node = start; node != end; ) {
+            node = space.predecessor(node);
+            path.addLast(graph.node(node));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,360 @@
+package projekt.delivery.routing;
+
+import projekt.base.DistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable, int-indexed snapshot of a {@link Region}.<p>
+ *
+ * The snapshot is meant for consumers that touch the whole graph many times, like path calculators or the occupancy of
+ * the edges, and that would otherwise navigate it through {@link Location}-keyed maps and {@link Region.Node} objects.
+ * All data is stored in primitive arrays, the {@link Region} itself remains the object facade of the graph and can be
+ * reached from every id with {@link #node(int)} and {@link #edge(int)}.<p>
+ *
+ * Every {@link Region.Node} is assigned a dense id in {@code [0, nodeCount)} and the adjacency of the region is stored
+ * in compressed sparse row (CSR) form: the arcs leaving node {@code v} are the indices
+ * {@code [firstArc(v), firstArc(v + 1))} of {@link #arcTarget(int)} and {@link #arcDuration(int)}.
+ * Every undirected {@link Region.Edge} is assigned a dense id in {@code [0, edgeCount)} and is stored as two arcs
+ * (one arc for self loops) that both refer to the id of their edge, see {@link #arcEdge(int)}. The endpoints and
+ * durations of the edges and the coordinates of the nodes are available by id as well.<p>
+ *
+ * The snapshot also provides a lower bound for the shortest path duration between two nodes that is derived from the
+ * {@link DistanceCalculator} of the region, see {@link #lowerBound(int, int)}.
+ */
+public final class CompiledRegion {
+
+    private final Region region;
+    private final Region.Node[] nodes;
+    private final Map<Location, Integer> ids;
+    private final int[] xs;
+    private final int[] ys;
+    private final Region.Edge[] edges;
+    private final Map<Region.Edge, Integer> edgeIds;
+    private final int[] edgeNodesA;
+    private final int[] edgeNodesB;
+    private final long[] edgeDurations;
+    private final int[] firstArc;
+    private final int[] arcTargets;
+    private final long[] arcDurations;
+    private final int[] arcEdges;
+    private final DistanceCalculator distanceCalculator;
+    private final double lowerBoundFactor;
+
+    private CompiledRegion(Region region) {
+        this.region = region;
+        distanceCalculator = region.getDistanceCalculator();
+
+        Collection<Region.Node> regionNodes = region.getNodes();
+        nodes = regionNodes.toArray(Region.Node[]::new);
+        ids = new HashMap<>(nodes.length * 2);
+        xs = new int[nodes.length];
+        ys = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            Location location = nodes[i].getLocation();
+            ids.put(location, i);
+            xs[i] = location.getX();
+            ys[i] = location.getY();
+        }
+
+        Collection<Region.Edge> regionEdges = region.getEdges();
+        edges = regionEdges.toArray(Region.Edge[]::new);
+        edgeIds = new HashMap<>(edges.length * 2);
+        edgeNodesA = new int[edges.length];
+        edgeNodesB = new int[edges.length];
+        edgeDurations = new long[edges.length];
+        int[] degree = new int[nodes.length + 1];
+        int edgeCount = 0;
+        // the smallest ratio of duration to distance, at most 1 since the default durations are the rounded up distances
+        double factor = 1.0;
+        for (Region.Edge edge : edges) {
+            edgeIds.put(edge, edgeCount);
+            int a = requireId(edge.getNodeA());
+            int b = requireId(edge.getNodeB());
+            edgeNodesA[edgeCount] = a;
+            edgeNodesB[edgeCount] = b;
+            edgeDurations[edgeCount] = edge.getDuration();
+            double distance = distanceCalculator.calculateDistance(nodes[a].getLocation(), nodes[b].getLocation());
+            if (distance > 0) {
+                factor = Math.min(factor, edge.getDuration() / distance);
+            }
+            degree[a]++;
+            if (a != b) {
+                degree[b]++;
+            }
+            edgeCount++;
+        }
+
+        // leave some room for rounding errors of the distance calculator
+        lowerBoundFactor = factor * (1 - 1e-9);
+
+        firstArc = new int[nodes.length + 1];
+        for (int i = 0; i < nodes.length; i++) {
+            firstArc[i + 1] = firstArc[i] + degree[i];
+        }
+        arcTargets = new int[firstArc[nodes.length]];
+        arcDurations = new long[firstArc[nodes.length]];
+        arcEdges = new int[firstArc[nodes.length]];
+
+        // degree is reused as the insertion cursor of every row
+        System.arraycopy(firstArc, 0, degree, 0, nodes.length);
+        for (int e = 0; e < edgeCount; e++) {
+            int a = edgeNodesA[e];
+            int b = edgeNodesB[e];
+            arcTargets[degree[a]] = b;
+            arcEdges[degree[a]] = e;
+            arcDurations[degree[a]++] = edgeDurations[e];
+            if (a != b) {
+                arcTargets[degree[b]] = a;
+                arcEdges[degree[b]] = e;
+                arcDurations[degree[b]++] = edgeDurations[e];
+            }
+        }
+    }
+
+    /**
+     * Compiles the given {@link Region} into a new {@link CompiledRegion}.
+     *
+     * @param region the {@link Region} to compile
+     * @return the compiled snapshot of {@code region}
+     */
+    public static CompiledRegion of(Region region) {
+        return new CompiledRegion(region);
+    }
+
+    /**
+     * Returns the {@link Region} this snapshot was compiled from.
+     *
+     * @return the compiled {@link Region}
+     */
+    public Region getRegion() {
+        return region;
+    }
+
+    /**
+     * Returns the number of nodes in this snapshot.
+     *
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the {@link Region.Node} with the given id.
+     *
+     * @param id the id of the node
+     * @return the {@link Region.Node} with the given id
+     */
+    public Region.Node node(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * Returns the id of the given {@link Region.Node} or {@code -1} if it is not part of this snapshot.
+     *
+     * @param node the {@link Region.Node} to look up
+     * @return the id of {@code node} or {@code -1}
+     */
+    public int idOf(Region.Node node) {
+        // the nodes of a frozen region know their index, which usually matches their id in this snapshot
+        if (node instanceof NodeImpl nodeImpl && nodeImpl.id >= 0 && nodeImpl.id < nodes.length && nodes[nodeImpl.id] == node) {
+            return nodeImpl.id;
+        }
+        return idOf(node.getLocation());
+    }
+
+    /**
+     * Returns the id of the node at the given {@link Location} or {@code -1} if there is no such node.
+     *
+     * @param location the {@link Location} to look up
+     * @return the id of the node at {@code location} or {@code -1}
+     */
+    public int idOf(Location location) {
+        Integer id = ids.get(location);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the x-coordinate of the node with the given id.
+     *
+     * @param id the id of the node
+     * @return the x-coordinate of the location of the node
+     */
+    public int x(int id) {
+        return xs[id];
+    }
+
+    /**
+     * Returns the y-coordinate of the node with the given id.
+     *
+     * @param id the id of the node
+     * @return the y-coordinate of the location of the node
+     */
+    public int y(int id) {
+        return ys[id];
+    }
+
+    /**
+     * Returns the id of the given {@link Region.Node}.
+     *
+     * @param node the {@link Region.Node} to look up
+     * @return the id of {@code node}
+     * @throws IllegalArgumentException if {@code node} is not part of this snapshot
+     */
+    public int requireId(Region.Node node) {
+        int id = idOf(node);
+        if (id < 0) {
+            throw new IllegalArgumentException("Node %s is not part of the region".formatted(node));
+        }
+        return id;
+    }
+
+    /**
+     * Returns the number of edges in this snapshot.
+     *
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the {@link Region.Edge} with the given id.
+     *
+     * @param id the id of the edge
+     * @return the {@link Region.Edge} with the given id
+     */
+    public Region.Edge edge(int id) {
+        return edges[id];
+    }
+
+    /**
+     * Returns the id of the given {@link Region.Edge} or {@code -1} if it is not part of this snapshot.
+     *
+     * @param edge the {@link Region.Edge} to look up
+     * @return the id of {@code edge} or {@code -1}
+     */
+    public int edgeIdOf(Region.Edge edge) {
+        if (edge instanceof EdgeImpl edgeImpl && edgeImpl.id >= 0 && edgeImpl.id < edges.length && edges[edgeImpl.id] == edge) {
+            return edgeImpl.id;
+        }
+        Integer id = edgeIds.get(edge);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the id of the given {@link Region.Edge}.
+     *
+     * @param edge the {@link Region.Edge} to look up
+     * @return the id of {@code edge}
+     * @throws IllegalArgumentException if {@code edge} is not part of this snapshot
+     */
+    public int requireEdgeId(Region.Edge edge) {
+        int id = edgeIdOf(edge);
+        if (id < 0) {
+            throw new IllegalArgumentException("Edge %s is not part of the region".formatted(edge));
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the first node of the edge with the given id, see {@link Region.Edge#getNodeA()}.
+     *
+     * @param id the id of the edge
+     * @return the id of the first node of the edge
+     */
+    public int edgeNodeA(int id) {
+        return edgeNodesA[id];
+    }
+
+    /**
+     * Returns the id of the second node of the edge with the given id, see {@link Region.Edge#getNodeB()}.
+     *
+     * @param id the id of the edge
+     * @return the id of the second node of the edge
+     */
+    public int edgeNodeB(int id) {
+        return edgeNodesB[id];
+    }
+
+    /**
+     * Returns the duration of the edge with the given id.
+     *
+     * @param id the id of the edge
+     * @return the duration of the edge
+     */
+    public long edgeDuration(int id) {
+        return edgeDurations[id];
+    }
+
+    /**
+     * Returns the number of arcs leaving the node with the given id, i.e. the number of its edges.
+     *
+     * @param id the id of the node
+     * @return the degree of the node
+     */
+    public int degree(int id) {
+        return firstArc[id + 1] - firstArc[id];
+    }
+
+    /**
+     * Returns the index of the first arc leaving the node with the given id.
+     * The arcs of node {@code v} end (exclusive) at {@code firstArc(v + 1)}.
+     *
+     * @param id the id of the node, may be equal to {@link #nodeCount()}
+     * @return the index of the first arc of the node
+     */
+    public int firstArc(int id) {
+        return firstArc[id];
+    }
+
+    /**
+     * Returns the id of the node the given arc leads to.
+     *
+     * @param arc the index of the arc
+     * @return the id of the target node
+     */
+    public int arcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    /**
+     * Returns the duration of the given arc.
+     *
+     * @param arc the index of the arc
+     * @return the duration of the arc
+     */
+    public long arcDuration(int arc) {
+        return arcDurations[arc];
+    }
+
+    /**
+     * Returns the id of the edge the given arc belongs to.
+     *
+     * @param arc the index of the arc
+     * @return the id of the edge of the arc
+     */
+    public int arcEdge(int arc) {
+        return arcEdges[arc];
+    }
+
+    /**
+     * Returns a lower bound for the duration of the shortest path between the two nodes with the given ids.<p>
+     *
+     * The bound is the distance between both nodes according to the {@link DistanceCalculator} of the region, scaled
+     * down by the smallest ratio of duration to distance of all edges and rounded down. Since all supported distance
+     * calculators satisfy the triangle inequality and all durations are integral, the bound is admissible and
+     * consistent and can be used as heuristic for A*.
+     *
+     * @param a the id of the first node
+     * @param b the id of the second node
+     * @return a lower bound for the duration of the shortest path between both nodes
+     */
+    long lowerBound(int a, int b) {
+        return (long) (lowerBoundFactor * distanceCalculator.calculateDistance(nodes[a].getLocation(), nodes[b].getLocation()));
+    }
+}
@@ -0,0 +1,695 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+import projekt.base.Location;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PathCalculator} that answers queries using a contraction hierarchy of the {@link Region}.<p>
+ *
+ * During preprocessing all nodes are contracted one after another in the order of their importance. Whenever the
+ * contraction of a node would destroy a shortest path between two of its neighbors, a shortcut edge is added.
+ * Afterwards, a shortest path can be found by two small searches that only follow edges to more important nodes.
+ * Shortcuts remember the node they bypass and are unpacked into the original nodes before a path is returned.<p>
+ *
+ * The hierarchy is built lazily for the {@link Region} of the first query. If a hierarchy file is set, a previously
+ * saved hierarchy of the same region is loaded from it instead, and a newly built hierarchy is saved to it. If saving
+ * fails, the call that built the hierarchy throws an {@link UncheckedIOException}.
+ */
+public class ContractionHierarchyPathCalculator implements PathCalculator {
+
+    /**
+     * The maximum number of nodes a witness search settles before a shortcut is added anyway.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int FILE_MAGIC = 0x43480001;
+
+    private @Nullable Path hierarchyFile;
+    private CompiledRegion compiledRegion;
+    private Hierarchy hierarchy;
+    private SearchSpace forward;
+    private SearchSpace backward;
+
+    /**
+     * Creates a new {@link ContractionHierarchyPathCalculator} that does not store its hierarchy.
+     */
+    public ContractionHierarchyPathCalculator() {
+        this(null);
+    }
+
+    /**
+     * Creates a new {@link ContractionHierarchyPathCalculator} that loads and stores its hierarchy from and to the
+     * given file.
+     *
+     * @param hierarchyFile the file of the hierarchy or {@code null}
+     */
+    public ContractionHierarchyPathCalculator(@Nullable Path hierarchyFile) {
+        this.hierarchyFile = hierarchyFile;
+    }
+
+    /**
+     * Returns the file the hierarchy is loaded from and saved to.
+     *
+     * @return the file of the hierarchy or {@code null} if the hierarchy is not stored
+     */
+    public synchronized @Nullable Path getHierarchyFile() {
+        return hierarchyFile;
+    }
+
+    /**
+     * Sets the file the hierarchy is loaded from and saved to. If a hierarchy was already built, it is saved
+     * to the new file immediately.
+     *
+     * @param hierarchyFile the file of the hierarchy or {@code null} if the hierarchy should not be stored
+     * @throws UncheckedIOException if the hierarchy could not be saved to {@code hierarchyFile}
+     */
+    public synchronized void setHierarchyFile(@Nullable Path hierarchyFile) {
+        this.hierarchyFile = hierarchyFile;
+        if (hierarchy != null && hierarchyFile != null) {
+            save(hierarchyFile, compiledRegion, hierarchy);
+        }
+    }
+
+    /**
+     * Builds (or loads) the hierarchy of the given {@link Region} if that has not happened yet.
+     *
+     * @param region the {@link Region} to preprocess
+     * @throws UncheckedIOException if a newly built hierarchy could not be saved to the hierarchy file. The hierarchy is
+     *                              used anyway, only saving it is not retried.
+     */
+    public synchronized void preprocess(Region region) {
+        compile(region);
+    }
+
+    @Override
+    public synchronized Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int startId = graph.requireId(start);
+        int endId = graph.requireId(end);
+        if (startId == endId) {
+            return new ArrayDeque<>();
+        }
+
+        forward.reset();
+        backward.reset();
+        forward.relax(startId, 0, -1);
+        forward.queue().insertOrDecrease(startId, 0);
+        backward.relax(endId, 0, -1);
+        backward.queue().insertOrDecrease(endId, 0);
+
+        long best = SearchSpace.INFINITY;
+        int meeting = -1;
+        while (true) {
+            boolean forwardActive = !forward.queue().isEmpty() && forward.queue().peekKey() < best;
+            boolean backwardActive = !backward.queue().isEmpty() && backward.queue().peekKey() < best;
+            if (!forwardActive && !backwardActive) {
+                break;
+            }
+            boolean isForward = forwardActive
+                && (!backwardActive || forward.queue().peekKey() <= backward.queue().peekKey());
+            SearchSpace space = isForward ? forward : backward;
+            SearchSpace other = isForward ? backward : forward;
+
+            int u = space.queue().poll();
+            long durationU = space.duration(u);
+            if (other.duration(u) != SearchSpace.INFINITY && durationU + other.duration(u) < best) {
+                best = durationU + other.duration(u);
+                meeting = u;
+            }
+            relaxUpward(hierarchy, space, u);
+        }
+
+        if (meeting < 0) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+        }
+        Deque<Region.Node> path = new ArrayDeque<>();
+        int[] chain = new int[8];
+        int chainLength = 0;
+        for (int node = meeting; node != -1; node = forward.predecessor(node)) {
+            chain = push(chain, chainLength++, node);
+        }
+        for (int i = chainLength - 1; i > 0; i--) {
+            unpack(chain[i], chain[i - 1], path);
+        }
+        for (int node = meeting; node != endId; ) {
+            int next = backward.predecessor(node);
+            unpack(node, next, path);
+            node = next;
+        }
+        return path;
+    }
+
+    @Override
+    public synchronized Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
+        CompiledRegion graph = compile(end.getRegion());
+        int endId = graph.requireId(end);
+
+        // upward search from end, followed by a sweep over all nodes in descending order of their rank (PHAST)
+        forward.reset();
+        forward.relax(endId, 0, -1);
+        forward.queue().insertOrDecrease(endId, 0);
+        while (!forward.queue().isEmpty()) {
+            relaxUpward(hierarchy, forward, forward.queue().poll());
+        }
+        for (int rank = graph.nodeCount() - 1; rank >= 0; rank--) {
+            int v = hierarchy.order[rank];
+            for (int arc = hierarchy.firstUp[v], last = hierarchy.firstUp[v + 1]; arc < last; arc++) {
+                int u = hierarchy.upTargets[arc];
+                if (forward.duration(u) != SearchSpace.INFINITY) {
+                    forward.relax(v, forward.duration(u) + hierarchy.upDurations[arc], u);
+                }
+            }
+        }
+
+        Map<Region.Node, Deque<Region.Node>> paths = new HashMap<>(graph.nodeCount() * 2);
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (forward.duration(node) == SearchSpace.INFINITY) {
+                continue;
+            }
+            Deque<Region.Node> path = new ArrayDeque<>();
+            for (int current = node; current != endId; ) {
+                int next = forward.predecessor(current);
+                unpack(current, next, path);
+                current = next;
+            }
+            paths.put(graph.node(node), path);
+        }
+        return paths;
+    }
+
+    /**
+     * Calculates the durations of the shortest paths with a bucket-based many-to-many search: the upward search
+     * spaces of all targets are stored in buckets at the nodes they reach, then the upward search of every source
+     * scans the buckets of the nodes it reaches. Both phases run in parallel.
+     */
+    @Override
+    public long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        Region region = DistanceTables.regionOf(sources, targets);
+        if (region == null) {
+            return new long[sources.size()][targets.size()];
+        }
+        CompiledRegion graph;
+        Hierarchy hierarchy;
+        synchronized (this) {
+            graph = compile(region);
+            hierarchy = this.hierarchy;
+        }
+        int[] sourceIds = DistanceTables.ids(graph, sources);
+        int[] targetIds = DistanceTables.ids(graph, targets);
+
+        // upward search spaces of all targets
+        int[][] reachedNodes = new int[targetIds.length][];
+        long[][] reachedDurations = new long[targetIds.length][];
+        DistanceTables.forEachRow(graph.nodeCount(), targetIds.length, (j, space) -> {
+            upwardSearch(hierarchy, space, targetIds[j]);
+            reachedNodes[j] = new int[space.reachedCount()];
+            reachedDurations[j] = new long[space.reachedCount()];
+            for (int i = 0; i < space.reachedCount(); i++) {
+                reachedNodes[j][i] = space.reached(i);
+                reachedDurations[j][i] = space.duration(space.reached(i));
+            }
+        });
+
+        // buckets of all nodes in CSR form
+        int[] firstEntry = new int[graph.nodeCount() + 1];
+        for (int[] nodes : reachedNodes) {
+            for (int node : nodes) {
+                firstEntry[node + 1]++;
+            }
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            firstEntry[node + 1] += firstEntry[node];
+        }
+        int[] entryTargets = new int[firstEntry[graph.nodeCount()]];
+        long[] entryDurations = new long[entryTargets.length];
+        int[] cursor = Arrays.copyOf(firstEntry, graph.nodeCount());
+        for (int j = 0; j < targetIds.length; j++) {
+            for (int i = 0; i < reachedNodes[j].length; i++) {
+                int entry = cursor[reachedNodes[j][i]]++;
+                entryTargets[entry] = j;
+                entryDurations[entry] = reachedDurations[j][i];
+            }
+        }
+
+        long[][] table = new long[sourceIds.length][targetIds.length];
+        DistanceTables.forEachRow(graph.nodeCount(), sourceIds.length, (i, space) -> {
+            long[] row = table[i];
+            Arrays.fill(row, SearchSpace.INFINITY);
+            upwardSearch(hierarchy, space, sourceIds[i]);
+            for (int k = 0; k < space.reachedCount(); k++) {
+                int node = space.reached(k);
+                long duration = space.duration(node);
+                for (int entry = firstEntry[node], last = firstEntry[node + 1]; entry < last; entry++) {
+                    row[entryTargets[entry]] = Math.min(row[entryTargets[entry]], duration + entryDurations[entry]);
+                }
+            }
+        });
+        return table;
+    }
+
+    /**
+     * Resets the given search space and settles all nodes that can be reached from {@code source} by only following
+     * edges to more important nodes.
+     *
+     * @param hierarchy the hierarchy to search
+     * @param space     the search space of the search
+     * @param source    the id of the node to start at
+     */
+    private static void upwardSearch(Hierarchy hierarchy, SearchSpace space, int source) {
+        space.reset();
+        space.relax(source, 0, -1);
+        space.queue().insertOrDecrease(source, 0);
+        while (!space.queue().isEmpty()) {
+            relaxUpward(hierarchy, space, space.queue().poll());
+        }
+    }
+
+    /**
+     * Relaxes all edges from {@code u} to more important nodes.
+     *
+     * @param hierarchy the hierarchy to search
+     * @param space     the search space of the current search
+     * @param u         the id of the settled node
+     */
+    private static void relaxUpward(Hierarchy hierarchy, SearchSpace space, int u) {
+        long durationU = space.duration(u);
+        for (int arc = hierarchy.firstUp[u], last = hierarchy.firstUp[u + 1]; arc < last; arc++) {
+            int v = hierarchy.upTargets[arc];
+            long duration = durationU + hierarchy.upDurations[arc];
+            if (space.relax(v, duration, u)) {
+                space.queue().insertOrDecrease(v, duration);
+            }
+        }
+    }
+
+    /**
+     * Appends the original nodes of the (shortcut) edge between {@code from} and {@code to} to the given path,
+     * excluding {@code from} and including {@code to}.
+     *
+     * @param from the id of the first node of the edge
+     * @param to   the id of the second node of the edge
+     * @param path the path to append the nodes to
+     */
+    private void unpack(int from, int to, Deque<Region.Node> path) {
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = from;
+        stack[size++] = to;
+        while (size > 0) {
+            int b = stack[--size];
+            int a = stack[--size];
+            int via = hierarchy.via(a, b);
+            if (via < 0) {
+                path.addLast(compiledRegion.node(b));
+            } else {
+                // a -> via has to be unpacked before via -> b
+                stack = push(stack, size++, via);
+                stack = push(stack, size++, b);
+                stack = push(stack, size++, a);
+                stack = push(stack, size++, via);
+            }
+        }
+    }
+
+    private static int[] push(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+
+    /**
+     * Returns the {@link CompiledRegion} of the given {@link Region} and makes sure that its hierarchy is available.
+     *
+     * @param region the {@link Region} of the current query
+     * @return the compiled {@link Region}
+     */
+    private CompiledRegion compile(Region region) {
+        if (compiledRegion == null || compiledRegion.getRegion() != region) {
+            CompiledRegion graph = CompiledRegion.of(region);
+            Hierarchy loaded = hierarchyFile == null ? null : load(hierarchyFile, graph);
+            boolean contracted = loaded == null;
+            if (contracted) {
+                loaded = Hierarchy.contract(graph);
+            }
+            compiledRegion = graph;
+            hierarchy = loaded;
+            forward = new SearchSpace(graph.nodeCount());
+            backward = new SearchSpace(graph.nodeCount());
+            if (contracted && hierarchyFile != null) {
+                save(hierarchyFile, graph, loaded);
+            }
+        }
+        return compiledRegion;
+    }
+
+    /**
+     * Saves the hierarchy of the given region to the given file. Nodes are identified by their {@link Location}.
+     *
+     * @throws UncheckedIOException if the file could not be written
+     */
+    private static void save(Path file, CompiledRegion graph, Hierarchy hierarchy) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(fingerprint(graph));
+            out.writeInt(graph.nodeCount());
+            for (int rank = 0; rank < graph.nodeCount(); rank++) {
+                Location location = graph.node(hierarchy.order[rank]).getLocation();
+                out.writeInt(location.getX());
+                out.writeInt(location.getY());
+            }
+            for (int rank = 0; rank < graph.nodeCount(); rank++) {
+                int v = hierarchy.order[rank];
+                out.writeInt(hierarchy.firstUp[v + 1] - hierarchy.firstUp[v]);
+                for (int arc = hierarchy.firstUp[v]; arc < hierarchy.firstUp[v + 1]; arc++) {
+                    int via = hierarchy.upVias[arc];
+                    out.writeInt(hierarchy.ranks[hierarchy.upTargets[arc]]);
+                    out.writeLong(hierarchy.upDurations[arc]);
+                    out.writeInt(via < 0 ? -1 : hierarchy.ranks[via]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save contraction hierarchy to " + file, e);
+        }
+    }
+
+    /**
+     * Loads the hierarchy of the given region from the given file.
+     *
+     * @return the loaded hierarchy or {@code null} if the file does not exist, is corrupt or belongs to a different
+     *         region
+     */
+    private static @Nullable Hierarchy load(Path file, CompiledRegion graph) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readLong() != fingerprint(graph) || in.readInt() != graph.nodeCount()) {
+                return null;
+            }
+            int nodeCount = graph.nodeCount();
+            int[] order = new int[nodeCount];
+            int[] ranks = new int[nodeCount];
+            for (int rank = 0; rank < nodeCount; rank++) {
+                int id = graph.idOf(new Location(in.readInt(), in.readInt()));
+                if (id < 0) {
+                    return null;
+                }
+                order[rank] = id;
+                ranks[id] = rank;
+            }
+            int[][] targets = new int[nodeCount][];
+            long[][] durations = new long[nodeCount][];
+            int[][] vias = new int[nodeCount][];
+            for (int rank = 0; rank < nodeCount; rank++) {
+                int v = order[rank];
+                int count = in.readInt();
+                // a node has at most one upward arc to every more important node
+                if (count < 0 || count >= nodeCount - rank) {
+                    return null;
+                }
+                targets[v] = new int[count];
+                durations[v] = new long[count];
+                vias[v] = new int[count];
+                for (int i = 0; i < count; i++) {
+                    targets[v][i] = order[in.readInt()];
+                    durations[v][i] = in.readLong();
+                    int via = in.readInt();
+                    vias[v][i] = via < 0 ? -1 : order[via];
+                }
+            }
+            return new Hierarchy(order, ranks, targets, durations, vias);
+        } catch (IOException | RuntimeException e) {
+            // a truncated or corrupt file is not usable, the hierarchy is built again
+            return null;
+        }
+    }
+
+    /**
+     * Returns a hash of the nodes and edges of the given region that does not depend on the order of the node ids.
+     */
+    private static long fingerprint(CompiledRegion graph) {
+        long hash = graph.nodeCount();
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            long location = pack(graph.node(v).getLocation());
+            hash += mix(location);
+            for (int arc = graph.firstArc(v), last = graph.firstArc(v + 1); arc < last; arc++) {
+                long target = pack(graph.node(graph.arcTarget(arc)).getLocation());
+                hash += mix(mix(location) ^ target ^ mix(graph.arcDuration(arc)));
+            }
+        }
+        return hash;
+    }
+
+    private static long pack(Location location) {
+        return ((long) location.getX() << 32) | (location.getY() & 0xFFFFFFFFL);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * The result of the preprocessing: the contraction order of all nodes and, for every node, the (shortcut) edges to
+     * nodes that were contracted later.
+     */
+    private static final class Hierarchy {
+
+        private final int[] order;
+        private final int[] ranks;
+        private final int[] firstUp;
+        private final int[] upTargets;
+        private final long[] upDurations;
+        private final int[] upVias;
+
+        private Hierarchy(int[] order, int[] ranks, int[][] targets, long[][] durations, int[][] vias) {
+            this.order = order;
+            this.ranks = ranks;
+            firstUp = new int[order.length + 1];
+            for (int v = 0; v < order.length; v++) {
+                firstUp[v + 1] = firstUp[v] + targets[v].length;
+            }
+            upTargets = new int[firstUp[order.length]];
+            upDurations = new long[upTargets.length];
+            upVias = new int[upTargets.length];
+            for (int v = 0; v < order.length; v++) {
+                System.arraycopy(targets[v], 0, upTargets, firstUp[v], targets[v].length);
+                System.arraycopy(durations[v], 0, upDurations, firstUp[v], targets[v].length);
+                System.arraycopy(vias[v], 0, upVias, firstUp[v], targets[v].length);
+            }
+        }
+
+        /**
+         * Returns the node that is bypassed by the edge between {@code a} and {@code b} or {@code -1} if the edge
+         * is an original edge of the region.
+         */
+        int via(int a, int b) {
+            int lower = ranks[a] < ranks[b] ? a : b;
+            int upper = lower == a ? b : a;
+            for (int arc = firstUp[lower], last = firstUp[lower + 1]; arc < last; arc++) {
+                if (upTargets[arc] == upper) {
+                    return upVias[arc];
+                }
+            }
+            throw new AssertionError("No edge between %d and %d in hierarchy".formatted(a, b));
+        }
+
+        /**
+         * Contracts all nodes of the given region.
+         */
+        static Hierarchy contract(CompiledRegion graph) {
+            int nodeCount = graph.nodeCount();
+            ContractionGraph contractionGraph = new ContractionGraph(graph);
+            SearchSpace witnessSpace = new SearchSpace(nodeCount);
+            int[] contractedNeighbors = new int[nodeCount];
+            int[] order = new int[nodeCount];
+            int[] ranks = new int[nodeCount];
+            int[][] targets = new int[nodeCount][];
+            long[][] durations = new long[nodeCount][];
+            int[][] vias = new int[nodeCount][];
+
+            IndexedHeap queue = new IndexedHeap(nodeCount);
+            for (int v = 0; v < nodeCount; v++) {
+                queue.insertOrDecrease(v, contractionGraph.contract(v, witnessSpace, true) - contractionGraph.degree[v]);
+            }
+
+            int rank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // lazy update: the importance may have changed since v was inserted
+                long importance = contractionGraph.contract(v, witnessSpace, true) - contractionGraph.degree[v]
+                    + contractedNeighbors[v];
+                if (!queue.isEmpty() && importance > queue.peekKey()) {
+                    queue.insertOrDecrease(v, importance);
+                    continue;
+                }
+
+                order[rank] = v;
+                ranks[v] = rank++;
+                int degree = contractionGraph.degree[v];
+                targets[v] = Arrays.copyOf(contractionGraph.neighbors[v], degree);
+                durations[v] = Arrays.copyOf(contractionGraph.durations[v], degree);
+                vias[v] = Arrays.copyOf(contractionGraph.vias[v], degree);
+
+                contractionGraph.contract(v, witnessSpace, false);
+                for (int i = 0; i < degree; i++) {
+                    contractionGraph.remove(targets[v][i], v);
+                    contractedNeighbors[targets[v][i]]++;
+                }
+                contractionGraph.degree[v] = 0;
+            }
+            return new Hierarchy(order, ranks, targets, durations, vias);
+        }
+    }
+
+    /**
+     * The remaining graph during the contraction. It contains all nodes that have not been contracted yet and all
+     * original and shortcut edges between them.
+     */
+    private static final class ContractionGraph {
+
+        private final int[][] neighbors;
+        private final long[][] durations;
+        private final int[][] vias;
+        private final int[] degree;
+
+        private ContractionGraph(CompiledRegion graph) {
+            int nodeCount = graph.nodeCount();
+            neighbors = new int[nodeCount][];
+            durations = new long[nodeCount][];
+            vias = new int[nodeCount][];
+            degree = new int[nodeCount];
+            for (int v = 0; v < nodeCount; v++) {
+                int capacity = Math.max(4, graph.firstArc(v + 1) - graph.firstArc(v));
+                neighbors[v] = new int[capacity];
+                durations[v] = new long[capacity];
+                vias[v] = new int[capacity];
+            }
+            for (int v = 0; v < nodeCount; v++) {
+                for (int arc = graph.firstArc(v), last = graph.firstArc(v + 1); arc < last; arc++) {
+                    int u = graph.arcTarget(arc);
+                    if (u != v) {
+                        addArc(v, u, graph.arcDuration(arc), -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Contracts (or simulates the contraction of) {@code v} by adding all necessary shortcuts between its
+         * neighbors.
+         *
+         * @param v        the node to contract
+         * @param space    the search space used for witness searches
+         * @param simulate if {@code true}, no shortcuts are added
+         * @return the number of necessary shortcuts
+         */
+        int contract(int v, SearchSpace space, boolean simulate) {
+            int shortcuts = 0;
+            int degreeV = degree[v];
+            for (int i = 0; i < degreeV - 1; i++) {
+                int u = neighbors[v][i];
+                long maxDuration = 0;
+                for (int j = i + 1; j < degreeV; j++) {
+                    maxDuration = Math.max(maxDuration, durations[v][i] + durations[v][j]);
+                }
+                witnessSearch(space, u, v, maxDuration);
+                for (int j = i + 1; j < degreeV; j++) {
+                    int w = neighbors[v][j];
+                    long shortcut = durations[v][i] + durations[v][j];
+                    if (space.duration(w) > shortcut) {
+                        shortcuts++;
+                        if (!simulate) {
+                            add(u, w, shortcut, v);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Searches the shortest paths from {@code source} that do not use {@code excluded} and are not longer than
+         * {@code maxDuration}.
+         */
+        private void witnessSearch(SearchSpace space, int source, int excluded, long maxDuration) {
+            space.reset();
+            IndexedHeap queue = space.queue();
+            space.relax(source, 0, -1);
+            queue.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!queue.isEmpty() && queue.peekKey() <= maxDuration && settled++ < WITNESS_SETTLE_LIMIT) {
+                int u = queue.poll();
+                long durationU = space.duration(u);
+                for (int i = 0; i < degree[u]; i++) {
+                    int w = neighbors[u][i];
+                    long duration = durationU + durations[u][i];
+                    if (w != excluded && duration <= maxDuration && space.relax(w, duration, u)) {
+                        queue.insertOrDecrease(w, duration);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds an undirected edge or lowers the duration of an existing edge between {@code u} and {@code w}.
+         */
+        private void add(int u, int w, long duration, int via) {
+            addArc(u, w, duration, via);
+            addArc(w, u, duration, via);
+        }
+
+        private void addArc(int u, int w, long duration, int via) {
+            for (int i = 0; i < degree[u]; i++) {
+                if (neighbors[u][i] == w) {
+                    if (duration < durations[u][i]) {
+                        durations[u][i] = duration;
+                        vias[u][i] = via;
+                    }
+                    return;
+                }
+            }
+            if (degree[u] == neighbors[u].length) {
+                int capacity = neighbors[u].length * 2;
+                neighbors[u] = Arrays.copyOf(neighbors[u], capacity);
+                durations[u] = Arrays.copyOf(durations[u], capacity);
+                vias[u] = Arrays.copyOf(vias[u], capacity);
+            }
+            neighbors[u][degree[u]] = w;
+            durations[u][degree[u]] = duration;
+            vias[u][degree[u]++] = via;
+        }
+
+        /**
+         * Removes the edge from {@code u} to {@code w} from the adjacency of {@code u}.
+         */
+        private void remove(int u, int w) {
+            for (int i = 0; i < degree[u]; i++) {
+                if (neighbors[u][i] == w) {
+                    int last = --degree[u];
+                    neighbors[u][i] = neighbors[u][last];
+                    durations[u][i] = durations[u][last];
+                    vias[u][i] = vias[u][last];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * A {@link PathCalculator} for regions whose edge durations change as a whole, e.g. when a rush hour profile is
+ * applied, based on customizable route planning (CRP).<p>
+ *
+ * The preprocessing is split into two phases:
+ * <ul>
+ *     <li>The metric-independent phase partitions the region into cells with a {@link RegionPartition}. It only
+ *     depends on the structure of the region and is executed once.</li>
+ *     <li>The customization computes the shortest durations inside every cell between all pairs of its boundary nodes,
+ *     the overlay of the cell. It depends on the durations of the {@link RegionOverlay} and is repeated for every cell
+ *     that contains an edge whose duration changed. Durations of edges between cells are used directly and never
+ *     require a customization.</li>
+ * </ul>
+ * Queries search the cells of the start and end node completely and skip all other cells using their overlays. Paths
+ * through skipped cells are unpacked with a search restricted to the cell.<p>
+ *
+ * Customization happens lazily before the next query, or explicitly with {@link #customize()}. All methods
+ * synchronize on the overlay, so durations can be changed while paths are calculated by other threads.<p>
+ *
+ * The calculator registers itself at the overlay to be notified about changes. It should be closed once it is no
+ * longer used, otherwise the overlay keeps it reachable.
+ */
+public class CustomizablePathCalculator implements PathCalculator, AutoCloseable {
+
+    /**
+     * The default maximum number of nodes in a cell.
+     */
+    public static final int DEFAULT_CELL_SIZE = 128;
+
+    private static final long INFINITY = SearchSpace.INFINITY;
+
+    private final RegionOverlay overlay;
+    private final CompiledRegion graph;
+    private final RegionPartition partition;
+
+    /**
+     * The boundary nodes of cell {@code c} are {@code boundaryNodes[firstBoundaryNode[c]..firstBoundaryNode[c + 1])}.
+     */
+    private final int[] firstBoundaryNode;
+    private final int[] boundaryNodes;
+
+    /**
+     * The index of every node in the boundary nodes of its cell or {@code -1} if it is not a boundary node.
+     */
+    private final int[] boundaryIndices;
+
+    /**
+     * The overlay of cell {@code c} is a {@code k * k} matrix starting at {@code firstShortcut[c]}, where {@code k} is
+     * the number of boundary nodes of {@code c}. It contains the shortest duration inside the cell between every pair
+     * of boundary nodes or {@link #INFINITY}.
+     */
+    private final int[] firstShortcut;
+    private final long[] shortcuts;
+
+    private final boolean[] outdatedCells;
+    private boolean outdated;
+
+    private final RegionOverlay.Listener listener;
+    private boolean closed;
+
+    // scratch space of the searches, only used while the lock of the overlay is held
+    private final SearchSpace querySpace;
+    private final SearchSpace cellSpace;
+
+    /**
+     * Creates a new {@link CustomizablePathCalculator} with cells of up to {@link #DEFAULT_CELL_SIZE} nodes.
+     *
+     * @param overlay the {@link RegionOverlay} to take the durations of the edges from
+     */
+    public CustomizablePathCalculator(RegionOverlay overlay) {
+        this(overlay, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a new {@link CustomizablePathCalculator}.
+     *
+     * @param overlay     the {@link RegionOverlay} to take the durations of the edges from
+     * @param maxCellSize the maximum number of nodes in a cell
+     * @throws IllegalArgumentException if {@code maxCellSize} is not positive
+     */
+    public CustomizablePathCalculator(RegionOverlay overlay, int maxCellSize) {
+        this.overlay = overlay;
+        graph = overlay.graph();
+        partition = RegionPartition.of(graph, maxCellSize);
+
+        int cellCount = partition.cellCount();
+        firstBoundaryNode = new int[cellCount + 1];
+        firstShortcut = new int[cellCount + 1];
+        boundaryIndices = new int[graph.nodeCount()];
+        int[][] cellBoundaries = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int[] boundary = partition.boundaryNodesOf(cell);
+            cellBoundaries[cell] = boundary;
+            firstBoundaryNode[cell + 1] = firstBoundaryNode[cell] + boundary.length;
+            firstShortcut[cell + 1] = Math.addExact(firstShortcut[cell], boundary.length * boundary.length);
+        }
+        boundaryNodes = new int[firstBoundaryNode[cellCount]];
+        Arrays.fill(boundaryIndices, -1);
+        for (int cell = 0; cell < cellCount; cell++) {
+            int[] boundary = cellBoundaries[cell];
+            System.arraycopy(boundary, 0, boundaryNodes, firstBoundaryNode[cell], boundary.length);
+            for (int i = 0; i < boundary.length; i++) {
+                boundaryIndices[boundary[i]] = i;
+            }
+        }
+        shortcuts = new long[firstShortcut[cellCount]];
+
+        outdatedCells = new boolean[cellCount];
+        Arrays.fill(outdatedCells, true);
+        outdated = true;
+        querySpace = new SearchSpace(graph.nodeCount());
+        cellSpace = new SearchSpace(graph.nodeCount());
+        listener = this::onDurationChanged;
+        overlay.addListener(listener);
+    }
+
+    /**
+     * Returns the {@link RegionOverlay} this calculator takes the durations of the edges from.
+     *
+     * @return the {@link RegionOverlay} of this calculator
+     */
+    public RegionOverlay getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Returns the {@link RegionPartition} whose cells are skipped by queries.
+     *
+     * @return the {@link RegionPartition} of this calculator
+     */
+    public RegionPartition getPartition() {
+        return partition;
+    }
+
+    /**
+     * Updates the overlays of all cells that contain an edge whose duration changed since the last customization.
+     * This is done before every query anyway, but can be triggered explicitly right after a new duration profile was
+     * applied, so the following queries do not have to wait.
+     */
+    public void customize() {
+        synchronized (overlay) {
+            requireOpen();
+            if (!outdated) {
+                return;
+            }
+            for (int cell = 0; cell < outdatedCells.length; cell++) {
+                if (outdatedCells[cell]) {
+                    customize(cell);
+                    outdatedCells[cell] = false;
+                }
+            }
+            outdated = false;
+        }
+    }
+
+    @Override
+    public Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
+        synchronized (overlay) {
+            int startId = graph.requireId(start);
+            int endId = graph.requireId(end);
+            query(startId, endId);
+            Deque<Region.Node> path = new ArrayDeque<>();
+            for (int node = startId; node != endId; ) {
+                int next = querySpace.predecessor(node);
+                int cell = partition.cellOf(node);
+                if (partition.cellOf(next) == cell && isSkipped(cell, startId, endId)) {
+                    // the nodes were connected by the overlay of the cell
+                    searchCell(cell, next, node);
+                    for (int inner = node; inner != next; ) {
+                        inner = cellSpace.predecessor(inner);
+                        path.addLast(graph.node(inner));
+                    }
+                } else {
+                    path.addLast(graph.node(next));
+                }
+                node = next;
+            }
+            return path;
+        }
+    }
+
+    @Override
+    public Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
+        synchronized (overlay) {
+            requireOpen();
+            int endId = graph.requireId(end);
+            searchCell(-1, endId, -1);
+            return PathTree.of(graph, cellSpace, endId).paths();
+        }
+    }
+
+    @Override
+    public long getDistance(Region.Node start, Region.Node end) {
+        synchronized (overlay) {
+            int startId = graph.requireId(start);
+            query(startId, graph.requireId(end));
+            return querySpace.duration(startId);
+        }
+    }
+
+    @Override
+    public long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        synchronized (overlay) {
+            requireOpen();
+            int[] sourceIds = DistanceTables.ids(graph, sources);
+            int[] targetIds = DistanceTables.ids(graph, targets);
+            long[][] table = new long[sourceIds.length][targetIds.length];
+            for (int j = 0; j < targetIds.length; j++) {
+                searchCell(-1, targetIds[j], -1);
+                for (int i = 0; i < sourceIds.length; i++) {
+                    table[i][j] = cellSpace.duration(sourceIds[i]);
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Unregisters this calculator from its overlay. Queries on a closed calculator throw an
+     * {@link IllegalStateException}, closing it again has no effect.
+     */
+    @Override
+    public void close() {
+        synchronized (overlay) {
+            if (!closed) {
+                closed = true;
+                overlay.removeListener(listener);
+            }
+        }
+    }
+
+    private void requireOpen() {
+        if (closed) {
+            throw new IllegalStateException("CustomizablePathCalculator is closed");
+        }
+    }
+
+    private void onDurationChanged(int edge, long oldDuration, long newDuration) {
+        int cell = partition.cellOf(graph.edgeNodeA(edge));
+        if (cell == partition.cellOf(graph.edgeNodeB(edge))) {
+            outdatedCells[cell] = true;
+            outdated = true;
+        }
+    }
+
+    /**
+     * Recomputes the overlay of the given cell with one search inside the cell per boundary node.
+     */
+    private void customize(int cell) {
+        int from = firstBoundaryNode[cell];
+        int k = firstBoundaryNode[cell + 1] - from;
+        for (int i = 0; i < k; i++) {
+            searchCell(cell, boundaryNodes[from + i], -1);
+            for (int j = 0; j < k; j++) {
+                shortcuts[firstShortcut[cell] + i * k + j] = cellSpace.duration(boundaryNodes[from + j]);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a query between the given nodes skips the given cell.
+     */
+    private boolean isSkipped(int cell, int start, int end) {
+        return cell != partition.cellOf(start) && cell != partition.cellOf(end);
+    }
+
+    /**
+     * Searches the shortest paths from {@code end} to {@code start} in {@link #querySpace}. The predecessor of a node is
+     * the next node on its path to {@code end}, nodes of the same skipped cell are connected by its overlay.
+     *
+     * @throws IllegalArgumentException if there is no path
+     */
+    private void query(int start, int end) {
+        customize();
+        SearchSpace space = querySpace;
+        IndexedHeap queue = space.queue();
+        space.reset();
+        space.relax(end, 0, -1);
+        queue.insertOrDecrease(end, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (u == start) {
+                return;
+            }
+            long durationU = space.duration(u);
+            int cell = partition.cellOf(u);
+            boolean skipped = isSkipped(cell, start, end);
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                // the inner edges of skipped cells are replaced by their overlays
+                if (skipped && partition.cellOf(v) == cell) {
+                    continue;
+                }
+                long duration = durationU + overlay.arcDuration(arc);
+                if (space.relax(v, duration, u)) {
+                    queue.insertOrDecrease(v, duration);
+                }
+            }
+            if (skipped) {
+                int from = firstBoundaryNode[cell];
+                int k = firstBoundaryNode[cell + 1] - from;
+                int row = firstShortcut[cell] + boundaryIndices[u] * k;
+                for (int j = 0; j < k; j++) {
+                    if (shortcuts[row + j] == INFINITY) {
+                        continue;
+                    }
+                    int v = boundaryNodes[from + j];
+                    long duration = durationU + shortcuts[row + j];
+                    if (space.relax(v, duration, u)) {
+                        queue.insertOrDecrease(v, duration);
+                    }
+                }
+            }
+        }
+        throw new IllegalArgumentException("No path from %s to %s".formatted(graph.node(start), graph.node(end)));
+    }
+
+    /**
+     * Executes Dijkstra's algorithm from {@code source} in {@link #cellSpace} until {@code target} is reached, using
+     * only the nodes of the given cell or all nodes if {@code cell} is {@code -1}.
+     */
+    private void searchCell(int cell, int source, int target) {
+        SearchSpace space = cellSpace;
+        IndexedHeap queue = space.queue();
+        space.reset();
+        space.relax(source, 0, -1);
+        queue.insertOrDecrease(source, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (u == target) {
+                return;
+            }
+            long durationU = space.duration(u);
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                if (cell >= 0 && partition.cellOf(v) != cell) {
+                    continue;
+                }
+                long duration = durationU + overlay.arcDuration(arc);
+                if (space.relax(v, duration, u)) {
+                    queue.insertOrDecrease(v, duration);
+                }
+            }
+        }
+    }
+}
@@ -34,39 +34,32 @@ public class DijkstraPathCalculator implements PathCalculator {
     }
 
     /**
-     * Initializes the SSSP for the given start node.
+     * Initializes the SSSP for the given start node. All other nodes are only added to {@code references} when they
+     * are reached for the first time, so a search that stops early does not touch the whole region.
      *
      * @param queue      the queue to add the initialized dijkstra nodes to.
      * @param references the map to reference the dijkstra nodes by their region node.
      * @param start      the start node.
      */
     private void initSSSP(Queue<DijkstraNode> queue, Map<Region.Node, DijkstraNode> references, Region.Node start) {
-        for (Region.Node node : start.getRegion().getNodes()) {
-            DijkstraNode dijkstraNode;
-            if (node.equals(start)) {
-                dijkstraNode = new DijkstraNode(node, 0L);
-                // Starting node in queue only contains the starting node since new relaxed node will be added to the queue anyway
-                queue.add(dijkstraNode);
-            } else {
-                // Infinity weight
-                dijkstraNode = new DijkstraNode(node);
-            }
-            references.put(node, dijkstraNode);
-        }
+        DijkstraNode dijkstraNode = new DijkstraNode(start, 0L);
+        // Starting node in queue only contains the starting node since new relaxed node will be added to the queue anyway
+        queue.add(dijkstraNode);
+        references.put(start, dijkstraNode);
     }
 
     /**
      * Executes Dijkstra's algorithm starting at the given node.
      * @param end The starting node.
+     * @param stop The node after whose settlement the search stops or {@code null} to settle all nodes.
      * @return The result of the algorithm. Each {@link DijkstraNode} contains the information about which adjacent node
-     * lies on the shortest path to given node.
+     * lies on the shortest path to given node. Nodes that were not reached are not contained.
      */
 
-    private Map<Region.Node, DijkstraNode> execute(Region.Node end) {
+    private Map<Region.Node, DijkstraNode> execute(Region.Node end, @Nullable Region.Node stop) {
         // Initialize SSSP
-        int size = end.getRegion().getNodes().size();
-        Queue<DijkstraNode> queue = new PriorityQueue<>(size);
-        Map<Region.Node, DijkstraNode> references = new HashMap<>(size);
+        Queue<DijkstraNode> queue = new PriorityQueue<>();
+        Map<Region.Node, DijkstraNode> references = new HashMap<>();
         initSSSP(queue, references, end);
 
         // Relax edges
@@ -79,13 +72,18 @@ public class DijkstraPathCalculator implements PathCalculator {
             }
             u.visited = true;
 
+            // The path of stop is final once it is settled
+            if (u.node.equals(stop)) {
+                break;
+            }
+
             // If the lowest distance in the queue is infinity, we can stop as all relax attempts from here will fail
             if (u.duration == null) {
                 break;
             }
 
             for (Region.Node node : u.node.getAdjacentNodes()) {
-                DijkstraNode v = references.get(node);
+                DijkstraNode v = references.computeIfAbsent(node, DijkstraNode::new);
                 // Only relax if the node is not visited (v must be in Q)
                 if (v.visited) {
                     continue;
@@ -113,10 +111,13 @@ public class DijkstraPathCalculator implements PathCalculator {
         if (start == end) {
             return new ArrayDeque<>();
         }
-        // Reconstruct path, the start node is not part of the path
-        Deque<Region.Node> path = new ArrayDeque<>(start.getRegion().getNodes().size());
         DijkstraNode node = references.get(start);
         DijkstraNode endNode = references.get(end);
+        if (node == null || node.duration == null) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+        }
+        // Reconstruct path, the start node is not part of the path
+        Deque<Region.Node> path = new ArrayDeque<>();
 
         //don't add the startNode to the path
         node = node.previous;
@@ -135,7 +136,7 @@ public class DijkstraPathCalculator implements PathCalculator {
 
     @Override
     public Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
-        Map<Region.Node, DijkstraNode> references = execute(end);
+        Map<Region.Node, DijkstraNode> references = execute(end, start);
 
         return reconstructPath(references, start, end);
     }
@@ -143,11 +144,12 @@ public class DijkstraPathCalculator implements PathCalculator {
     @Override
     public Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
 
-        Map<Region.Node, DijkstraNode> references = execute(end);
+        Map<Region.Node, DijkstraNode> references = execute(end, null);
 
         Map<Region.Node, Deque<Region.Node>> paths = new HashMap<>();
 
-        for (Region.Node node : end.getRegion().getNodes()) {
+        // unreachable nodes have no path to end
+        for (Region.Node node : references.keySet()) {
             paths.put(node, reconstructPath(references, node, end));
         }
 
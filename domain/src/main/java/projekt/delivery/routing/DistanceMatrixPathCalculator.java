@@ -0,0 +1,238 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A {@link PathCalculator} that precomputes the shortest paths between all pairs of nodes of a region.<p>
+ *
+ * For every pair of nodes the duration of the shortest path and the next node on it are stored in two dense row-major
+ * matrices. They are filled by one Dijkstra search per node, which are executed in parallel on a {@link ForkJoinPool}.
+ * Afterwards {@link #getDistance(Region.Node, Region.Node)} is a single array access and
+ * {@link #getPath(Region.Node, Region.Node)} only follows the stored next nodes without any search.<p>
+ *
+ * Both matrices grow quadratically with the number of nodes, so only regions with at most {@link #MAX_NODE_COUNT}
+ * nodes are supported.
+ */
+public class DistanceMatrixPathCalculator implements PathTreeCalculator {
+
+    /**
+     * The maximum number of nodes of a region this calculator accepts.
+     */
+    public static final int MAX_NODE_COUNT = 4096;
+
+    /**
+     * The number of targets a single task of the precomputation processes without splitting.
+     */
+    private static final int TARGETS_PER_TASK = 16;
+
+    private static final long UNREACHABLE = SearchSpace.INFINITY;
+
+    private final ForkJoinPool pool;
+    private volatile Matrix matrix;
+
+    /**
+     * Creates a new {@link DistanceMatrixPathCalculator} that uses the common {@link ForkJoinPool}.
+     */
+    public DistanceMatrixPathCalculator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new {@link DistanceMatrixPathCalculator}.
+     *
+     * @param pool the pool to compute the matrices with
+     */
+    public DistanceMatrixPathCalculator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the matrices of the given {@link Region} if they are not computed yet, so the first query does not
+     * have to wait for them.
+     *
+     * @param region the {@link Region} to compute the matrices of
+     * @throws IllegalArgumentException if the region has more than {@link #MAX_NODE_COUNT} nodes
+     */
+    public void preprocess(Region region) {
+        compile(region);
+    }
+
+    @Override
+    public Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
+        Matrix matrix = compile(end.getRegion());
+        int startId = matrix.graph.requireId(start);
+        int endId = matrix.graph.requireId(end);
+        if (matrix.distance(startId, endId) == UNREACHABLE) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+        }
+        return matrix.path(startId, endId);
+    }
+
+    @Override
+    public Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
+        Matrix matrix = compile(end.getRegion());
+        int endId = matrix.graph.requireId(end);
+        Map<Region.Node, Deque<Region.Node>> paths = new HashMap<>(matrix.graph.nodeCount() * 2);
+        for (int node = 0; node < matrix.graph.nodeCount(); node++) {
+            if (matrix.distance(node, endId) != UNREACHABLE) {
+                paths.put(matrix.graph.node(node), matrix.path(node, endId));
+            }
+        }
+        return paths;
+    }
+
+    @Override
+    public long getDistance(Region.Node start, Region.Node end) {
+        Matrix matrix = compile(end.getRegion());
+        long distance = matrix.distance(matrix.graph.requireId(start), matrix.graph.requireId(end));
+        if (distance == UNREACHABLE) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+        }
+        return distance;
+    }
+
+    @Override
+    public long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        Region region = DistanceTables.regionOf(sources, targets);
+        if (region == null) {
+            return new long[sources.size()][targets.size()];
+        }
+        Matrix matrix = compile(region);
+        int[] sourceIds = DistanceTables.ids(matrix.graph, sources);
+        int[] targetIds = DistanceTables.ids(matrix.graph, targets);
+        long[][] table = new long[sourceIds.length][targetIds.length];
+        for (int i = 0; i < sourceIds.length; i++) {
+            for (int j = 0; j < targetIds.length; j++) {
+                table[i][j] = matrix.distance(sourceIds[i], targetIds[j]);
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public PathTree getPathTree(Region.Node end) {
+        Matrix matrix = compile(end.getRegion());
+        return matrix.tree(matrix.graph.requireId(end));
+    }
+
+    /**
+     * Returns the matrices of the given {@link Region}. They are only computed again if the region differs from the
+     * region of the previous query. Queries on the same region do not need to synchronize.
+     *
+     * @param region the {@link Region} of the current query
+     * @return the matrices of the {@link Region}
+     */
+    private Matrix compile(Region region) {
+        Matrix matrix = this.matrix;
+        if (matrix != null && matrix.graph.getRegion() == region) {
+            return matrix;
+        }
+        synchronized (this) {
+            matrix = this.matrix;
+            if (matrix == null || matrix.graph.getRegion() != region) {
+                matrix = Matrix.compute(CompiledRegion.of(region), pool);
+                this.matrix = matrix;
+            }
+            return matrix;
+        }
+    }
+
+    /**
+     * The immutable distance and next node matrices of a {@link CompiledRegion}.
+     */
+    private static final class Matrix {
+
+        private final CompiledRegion graph;
+        private final int size;
+
+        /**
+         * The duration of the shortest path from {@code i} to {@code j} at index {@code i * size + j}.
+         */
+        private final long[] distances;
+
+        /**
+         * The id of the node following {@code i} on the shortest path from {@code i} to {@code j} at index
+         * {@code i * size + j}, or {@code -1} if {@code i == j} or there is no such path.
+         */
+        private final int[] nextHops;
+
+        private Matrix(CompiledRegion graph) {
+            this.graph = graph;
+            size = graph.nodeCount();
+            distances = new long[size * size];
+            nextHops = new int[size * size];
+        }
+
+        static Matrix compute(CompiledRegion graph, ForkJoinPool pool) {
+            if (graph.nodeCount() > MAX_NODE_COUNT) {
+                throw new IllegalArgumentException("Region has %d nodes, at most %d are supported"
+                    .formatted(graph.nodeCount(), MAX_NODE_COUNT));
+            }
+            Matrix matrix = new Matrix(graph);
+            pool.invoke(matrix.new ComputeTask(0, matrix.size));
+            return matrix;
+        }
+
+        long distance(int start, int end) {
+            return distances[start * size + end];
+        }
+
+        Deque<Region.Node> path(int start, int end) {
+            Deque<Region.Node> path = new ArrayDeque<>();
+            for (int node = start; node != end; ) {
+                node = nextHops[node * size + end];
+                path.addLast(graph.node(node));
+            }
+            return path;
+        }
+
+        PathTree tree(int end) {
+            int[] next = new int[size];
+            for (int node = 0; node < size; node++) {
+                next[node] = nextHops[node * size + end];
+            }
+            return new PathTree(graph, end, next);
+        }
+
+        /**
+         * Fills the columns of a range of targets. Every target is searched by its own Dijkstra search whose
+         * predecessors are exactly the next nodes towards the target, because edges are undirected. Tasks write
+         * disjoint columns, so they do not need to synchronize.
+         */
+        private final class ComputeTask extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+
+            ComputeTask(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > TARGETS_PER_TASK) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new ComputeTask(from, middle), new ComputeTask(middle, to));
+                    return;
+                }
+                SearchSpace space = new SearchSpace(size);
+                for (int target = from; target < to; target++) {
+                    space.searchFrom(graph, target);
+                    for (int node = 0; node < size; node++) {
+                        distances[node * size + target] = space.duration(node);
+                        nextHops[node * size + target] = space.predecessor(node);
+                    }
+                }
+            }
+        }
+    }
+}
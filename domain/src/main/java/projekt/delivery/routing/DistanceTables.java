@@ -0,0 +1,185 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Helpers to calculate tables of shortest path durations between many sources and many targets, see
+ * {@link PathCalculator#getDistanceTable(Collection, Collection)}.<p>
+ *
+ * The rows of a table are calculated in parallel on the common {@link ForkJoinPool}. Every task uses its own
+ * {@link SearchSpace}, so only immutable data like a {@link CompiledRegion} may be shared between the rows.
+ */
+final class DistanceTables {
+
+    /**
+     * The number of tasks per thread the rows are split into, so threads that finish early can steal work.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private DistanceTables() {
+    }
+
+    /**
+     * Calculates a distance table with one Dijkstra search per row that stops as soon as all targets are settled.
+     * Since edges are undirected, the searches start at the smaller one of both collections.
+     *
+     * @param graph   the compiled region of all nodes
+     * @param sources the start nodes of the paths
+     * @param targets the end nodes of the paths
+     * @return the distance table, see {@link PathCalculator#getDistanceTable(Collection, Collection)}
+     */
+    static long[][] compute(CompiledRegion graph, Collection<? extends Region.Node> sources,
+                            Collection<? extends Region.Node> targets) {
+        int[] sourceIds = ids(graph, sources);
+        int[] targetIds = ids(graph, targets);
+        if (sourceIds.length <= targetIds.length) {
+            return search(graph, sourceIds, targetIds);
+        }
+        long[][] transposed = search(graph, targetIds, sourceIds);
+        long[][] table = new long[sourceIds.length][targetIds.length];
+        for (int i = 0; i < sourceIds.length; i++) {
+            for (int j = 0; j < targetIds.length; j++) {
+                table[i][j] = transposed[j][i];
+            }
+        }
+        return table;
+    }
+
+    private static long[][] search(CompiledRegion graph, int[] sourceIds, int[] targetIds) {
+        boolean[] isTarget = new boolean[graph.nodeCount()];
+        int distinctTargets = 0;
+        for (int target : targetIds) {
+            if (!isTarget[target]) {
+                isTarget[target] = true;
+                distinctTargets++;
+            }
+        }
+        int targetCount = distinctTargets;
+
+        long[][] table = new long[sourceIds.length][targetIds.length];
+        forEachRow(graph.nodeCount(), sourceIds.length, (row, space) -> {
+            space.reset();
+            IndexedHeap queue = space.queue();
+            space.relax(sourceIds[row], 0, -1);
+            queue.insertOrDecrease(sourceIds[row], 0);
+            int remaining = targetCount;
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                if (isTarget[u] && --remaining == 0) {
+                    break;
+                }
+                long durationU = space.duration(u);
+                for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                    int v = graph.arcTarget(arc);
+                    long duration = durationU + graph.arcDuration(arc);
+                    if (space.relax(v, duration, u)) {
+                        queue.insertOrDecrease(v, duration);
+                    }
+                }
+            }
+            for (int j = 0; j < targetIds.length; j++) {
+                table[row][j] = space.duration(targetIds[j]);
+            }
+        });
+        return table;
+    }
+
+    /**
+     * Returns the ids of the given nodes in the given order.
+     *
+     * @param graph the compiled region of the nodes
+     * @param nodes the nodes to look up
+     * @return the ids of the nodes
+     * @throws IllegalArgumentException if a node is not part of the region
+     */
+    static int[] ids(CompiledRegion graph, Collection<? extends Region.Node> nodes) {
+        int[] ids = new int[nodes.size()];
+        int i = 0;
+        for (Region.Node node : nodes) {
+            ids[i++] = graph.requireId(node);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the region of the nodes of a distance table or {@code null} if there are no nodes.
+     *
+     * @param sources the start nodes of the paths
+     * @param targets the end nodes of the paths
+     * @return the region of the first node
+     */
+    static @Nullable Region regionOf(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        if (sources.isEmpty() || targets.isEmpty()) {
+            return null;
+        }
+        return sources.iterator().next().getRegion();
+    }
+
+    /**
+     * Executes the given task for every row in {@code [0, rowCount)} in parallel.
+     *
+     * @param nodeCount the number of nodes of the region, used for the size of the search spaces
+     * @param rowCount  the number of rows
+     * @param task      the task to execute for every row
+     */
+    static void forEachRow(int nodeCount, int rowCount, RowTask task) {
+        if (rowCount == 0) {
+            return;
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int rowsPerTask = Math.max(1, rowCount / (pool.getParallelism() * TASKS_PER_THREAD));
+        pool.invoke(new RowAction(nodeCount, 0, rowCount, rowsPerTask, task));
+    }
+
+    /**
+     * The calculation of a single row of a distance table.
+     */
+    @FunctionalInterface
+    interface RowTask {
+
+        /**
+         * Calculates the given row.
+         *
+         * @param row   the index of the row
+         * @param space a search space that is only used by the current thread, its state is undefined
+         */
+        void run(int row, SearchSpace space);
+    }
+
+    private static final class RowAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int nodeCount;
+        private final int from;
+        private final int to;
+        private final int rowsPerTask;
+        private final RowTask task;
+
+        RowAction(int nodeCount, int from, int to, int rowsPerTask, RowTask task) {
+            this.nodeCount = nodeCount;
+            this.from = from;
+            this.to = to;
+            this.rowsPerTask = rowsPerTask;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > rowsPerTask) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowAction(nodeCount, from, middle, rowsPerTask, task),
+                    new RowAction(nodeCount, middle, to, rowsPerTask, task));
+                return;
+            }
+            SearchSpace space = new SearchSpace(nodeCount);
+            for (int row = from; row < to; row++) {
+                task.run(row, space);
+            }
+        }
+    }
+}
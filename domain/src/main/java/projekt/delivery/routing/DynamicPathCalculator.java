@@ -0,0 +1,313 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A {@link PathCalculator} for regions whose edge durations change during a simulation.<p>
+ *
+ * The durations are taken from a {@link RegionOverlay} instead of the {@link Region}. The calculator keeps the shortest
+ * path trees of the most recently used end nodes and repairs them incrementally whenever a duration of the overlay
+ * changes, similar to the dynamic algorithm of Ramalingam and Reps:
+ * <ul>
+ *     <li>If an edge gets shorter, only the nodes whose path becomes shorter by using the edge are updated, starting
+ *     at the endpoints of the edge.</li>
+ *     <li>If an edge gets longer, trees that do not use the edge stay valid. Otherwise only the subtree that reaches
+ *     the end node through the edge is removed and reconnected, starting at its unaffected neighbors.</li>
+ * </ul>
+ * Trees that are not affected by a change are not touched at all.<p>
+ *
+ * All methods synchronize on the overlay, so durations can be changed while paths are calculated by other threads.
+ * The calculator keeps its own trees, so it should not be wrapped in a {@link CachedPathCalculator}, which would
+ * return outdated paths after a change.<p>
+ *
+ * The calculator registers itself at the overlay to be notified about changes. It should be closed once it is no
+ * longer used, otherwise the overlay keeps it reachable and keeps repairing its trees.
+ */
+public class DynamicPathCalculator implements PathCalculator, AutoCloseable {
+
+    /**
+     * The default number of end nodes whose trees are kept.
+     */
+    public static final int DEFAULT_TREE_COUNT = 256;
+
+    private static final long INFINITY = Long.MAX_VALUE;
+
+    private final RegionOverlay overlay;
+    private final CompiledRegion graph;
+    private final Map<Integer, Tree> trees;
+    private final RegionOverlay.Listener listener;
+    private boolean closed;
+
+    // scratch space of the searches, only used while the lock of the overlay is held
+    private final IndexedHeap queue;
+    private final boolean[] affected;
+    private final int[] affectedNodes;
+
+    /**
+     * Creates a new {@link DynamicPathCalculator} that keeps the trees of up to {@link #DEFAULT_TREE_COUNT} end nodes.
+     *
+     * @param overlay the {@link RegionOverlay} to take the durations of the edges from
+     */
+    public DynamicPathCalculator(RegionOverlay overlay) {
+        this(overlay, DEFAULT_TREE_COUNT);
+    }
+
+    /**
+     * Creates a new {@link DynamicPathCalculator}.
+     *
+     * @param overlay   the {@link RegionOverlay} to take the durations of the edges from
+     * @param treeCount the maximum number of end nodes whose trees are kept
+     */
+    public DynamicPathCalculator(RegionOverlay overlay, int treeCount) {
+        if (treeCount <= 0) {
+            throw new IllegalArgumentException("treeCount must be positive");
+        }
+        this.overlay = overlay;
+        graph = overlay.graph();
+        trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Tree> eldest) {
+                return size() > treeCount;
+            }
+        };
+        queue = new IndexedHeap(graph.nodeCount());
+        affected = new boolean[graph.nodeCount()];
+        affectedNodes = new int[graph.nodeCount()];
+        listener = this::onDurationChanged;
+        overlay.addListener(listener);
+    }
+
+    /**
+     * Returns the {@link RegionOverlay} this calculator takes the durations of the edges from.
+     *
+     * @return the {@link RegionOverlay} of this calculator
+     */
+    public RegionOverlay getOverlay() {
+        return overlay;
+    }
+
+    @Override
+    public Deque<Region.Node> getPath(Region.Node start, Region.Node end) {
+        synchronized (overlay) {
+            int startId = graph.requireId(start);
+            Tree tree = tree(graph.requireId(end));
+            if (tree.durations[startId] == INFINITY) {
+                throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+            }
+            Deque<Region.Node> path = new ArrayDeque<>();
+            for (int node = startId; node != tree.end; ) {
+                node = tree.next[node];
+                path.addLast(graph.node(node));
+            }
+            return path;
+        }
+    }
+
+    @Override
+    public Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end) {
+        synchronized (overlay) {
+            Tree tree = tree(graph.requireId(end));
+            // the tree changes with the overlay, the returned paths are a snapshot
+            return new PathTree(graph, tree.end, tree.next.clone()).paths();
+        }
+    }
+
+    @Override
+    public long getDistance(Region.Node start, Region.Node end) {
+        synchronized (overlay) {
+            int startId = graph.requireId(start);
+            long duration = tree(graph.requireId(end)).durations[startId];
+            if (duration == INFINITY) {
+                throw new IllegalArgumentException("No path from %s to %s".formatted(start, end));
+            }
+            return duration;
+        }
+    }
+
+    @Override
+    public long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        synchronized (overlay) {
+            int[] sourceIds = DistanceTables.ids(graph, sources);
+            int[] targetIds = DistanceTables.ids(graph, targets);
+            long[][] table = new long[sourceIds.length][targetIds.length];
+            for (int j = 0; j < targetIds.length; j++) {
+                Tree tree = tree(targetIds[j]);
+                for (int i = 0; i < sourceIds.length; i++) {
+                    table[i][j] = tree.durations[sourceIds[i]];
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Unregisters this calculator from its overlay and drops all kept trees. Queries on a closed calculator throw an
+     * {@link IllegalStateException}, closing it again has no effect.
+     */
+    @Override
+    public void close() {
+        synchronized (overlay) {
+            if (!closed) {
+                closed = true;
+                overlay.removeListener(listener);
+                trees.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the tree of the given end node and builds it if it is not kept yet.
+     *
+     * @param end the id of the end node
+     * @return the tree of {@code end}
+     */
+    private Tree tree(int end) {
+        if (closed) {
+            throw new IllegalStateException("DynamicPathCalculator is closed");
+        }
+        Tree tree = trees.get(end);
+        if (tree == null) {
+            tree = new Tree(end);
+            trees.put(end, tree);
+        }
+        return tree;
+    }
+
+    private void onDurationChanged(int edge, long oldDuration, long newDuration) {
+        int a = graph.edgeNodeA(edge);
+        int b = graph.edgeNodeB(edge);
+        if (a == b) {
+            return;
+        }
+        for (Tree tree : trees.values()) {
+            if (newDuration < oldDuration) {
+                tree.decrease(a, b, newDuration);
+            } else {
+                tree.increase(a, b, oldDuration);
+            }
+        }
+    }
+
+    /**
+     * The shortest path tree of a single end node.
+     */
+    private final class Tree {
+
+        private final int end;
+
+        /**
+         * The duration of the shortest path to {@link #end} or {@link #INFINITY} for unreachable nodes.
+         */
+        private final long[] durations;
+
+        /**
+         * The id of the next node on the shortest path to {@link #end} or {@code -1} for the end node and unreachable
+         * nodes.
+         */
+        private final int[] next;
+
+        Tree(int end) {
+            this.end = end;
+            durations = new long[graph.nodeCount()];
+            next = new int[graph.nodeCount()];
+            Arrays.fill(durations, INFINITY);
+            Arrays.fill(next, -1);
+            durations[end] = 0;
+            queue.insertOrDecrease(end, 0);
+            propagate();
+        }
+
+        /**
+         * Updates the tree after the duration of an edge between {@code a} and {@code b} decreased.
+         */
+        void decrease(int a, int b, long duration) {
+            relax(a, b, duration);
+            relax(b, a, duration);
+            propagate();
+        }
+
+        /**
+         * Updates the tree after the duration of an edge between {@code a} and {@code b} increased.
+         */
+        void increase(int a, int b, long oldDuration) {
+            int child;
+            if (next[a] == b) {
+                child = a;
+            } else if (next[b] == a) {
+                child = b;
+            } else {
+                return;
+            }
+            if (durations[child] - durations[next[child]] < oldDuration) {
+                // the tree uses a shorter parallel edge
+                return;
+            }
+
+            // collect the subtree of child, it contains exactly the nodes whose paths use the edge
+            int affectedCount = 0;
+            affected[child] = true;
+            affectedNodes[affectedCount++] = child;
+            for (int i = 0; i < affectedCount; i++) {
+                int node = affectedNodes[i];
+                for (int arc = graph.firstArc(node), last = graph.firstArc(node + 1); arc < last; arc++) {
+                    int neighbor = graph.arcTarget(arc);
+                    if (!affected[neighbor] && next[neighbor] == node) {
+                        affected[neighbor] = true;
+                        affectedNodes[affectedCount++] = neighbor;
+                    }
+                }
+            }
+            for (int i = 0; i < affectedCount; i++) {
+                durations[affectedNodes[i]] = INFINITY;
+                next[affectedNodes[i]] = -1;
+            }
+
+            // reconnect the subtree through its best unaffected neighbors
+            for (int i = 0; i < affectedCount; i++) {
+                int node = affectedNodes[i];
+                for (int arc = graph.firstArc(node), last = graph.firstArc(node + 1); arc < last; arc++) {
+                    int neighbor = graph.arcTarget(arc);
+                    if (!affected[neighbor]) {
+                        relax(node, neighbor, overlay.arcDuration(arc));
+                    }
+                }
+            }
+            for (int i = 0; i < affectedCount; i++) {
+                affected[affectedNodes[i]] = false;
+            }
+            propagate();
+        }
+
+        /**
+         * Uses the arc from {@code node} to {@code neighbor} for the path of {@code node} if it becomes shorter.
+         */
+        private void relax(int node, int neighbor, long duration) {
+            if (durations[neighbor] == INFINITY) {
+                return;
+            }
+            long candidate = durations[neighbor] + duration;
+            if (candidate < durations[node]) {
+                durations[node] = candidate;
+                next[node] = neighbor;
+                queue.insertOrDecrease(node, candidate);
+            }
+        }
+
+        /**
+         * Executes Dijkstra's algorithm starting with the nodes in the queue until all durations are minimal again.
+         */
+        private void propagate() {
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int arc = graph.firstArc(node), last = graph.firstArc(node + 1); arc < last; arc++) {
+                    relax(graph.arcTarget(arc), node, overlay.arcDuration(arc));
+                }
+            }
+        }
+    }
+}
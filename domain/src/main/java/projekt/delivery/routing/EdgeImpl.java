@@ -19,6 +19,12 @@ class EdgeImpl implements Region.Edge {
     private final Location locationA;
     private final Location locationB;
     private final long duration;
+    private final int hash;
+
+    /**
+     * The index of this edge in the edges of its frozen region or {@code -1}, see {@link RegionImpl#freeze()}.
+     */
+    int id = -1;
 
     /**
      * Creates a new {@link EdgeImpl} instance.
@@ -44,6 +50,8 @@ class EdgeImpl implements Region.Edge {
         this.locationA = locationA;
         this.locationB = locationB;
         this.duration = duration;
+        // all fields are immutable, so the hash code only has to be computed once
+        hash = Objects.hash(name, locationA, locationB, duration);
     }
 
     /**
@@ -128,6 +136,8 @@ class EdgeImpl implements Region.Edge {
             return false;
         if(o == this)
             return true;
+        if (hash != ((EdgeImpl) o).hash)
+            return false;
         return (Objects.equals(this.name, ((EdgeImpl) o).name)
             && Objects.equals(this.locationA, ((EdgeImpl) o).locationA)
         && Objects.equals(this.locationB, ((EdgeImpl) o).locationB)
@@ -143,7 +153,7 @@ class EdgeImpl implements Region.Edge {
      * @return hash of name, locationA, locationB, duration
      */
     public int hashCode() {
-        return Objects.hash(name,locationA,locationB,duration);
+        return hash;
     }
 
     @Override
@@ -0,0 +1,153 @@
+package projekt.delivery.routing;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap over the ids {@code [0, capacity)} with {@code long} keys that supports decrease-key.<p>
+ *
+ * The position of every id inside the heap is tracked, so no id is ever contained twice and no stale entries
+ * have to be skipped as with a {@link java.util.PriorityQueue}.
+ */
+final class IndexedHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    /**
+     * Creates a new, empty {@link IndexedHeap} for the ids {@code [0, capacity)}.
+     *
+     * @param capacity the number of ids
+     */
+    IndexedHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Returns {@code true} if this heap does not contain any id.
+     *
+     * @return {@code true} if this heap is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns {@code true} if the given id is currently contained in this heap.
+     *
+     * @param id the id to check
+     * @return {@code true} if {@code id} is contained
+     */
+    boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     * Inserts the given id with the given key or lowers its key if it is already contained.
+     * Nothing happens if the id is contained with a key that is smaller or equal to {@code key}.
+     *
+     * @param id  the id to insert
+     * @param key the (new) key of the id
+     */
+    void insertOrDecrease(int id, long key) {
+        int position = positions[id];
+        if (position < 0) {
+            position = size++;
+            heap[position] = id;
+            positions[id] = position;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Returns the smallest key in this heap.
+     *
+     * @return the smallest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    long peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.
+     *
+     * @return the id with the smallest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        int min = heap[0];
+        positions[min] = -1;
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes all ids from this heap. The cost is proportional to the current size and not to the capacity.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        long key = keys[id];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        long key = keys[id];
+        int half = size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < size && keys[heap[rightPosition]] < keys[child]) {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            heap[position] = child;
+            positions[child] = position;
+            position = childPosition;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+}
@@ -0,0 +1,340 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+import projekt.delivery.event.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Schedules the movements of the vehicles of a {@link VehicleManagerImpl}.<p>
+ *
+ * Instead of asking every {@link VehicleManager.Occupied} in every tick whether one of its vehicles can move, vehicles
+ * are only looked at when they can actually move:
+ * <ul>
+ *     <li>A vehicle on a node is <i>active</i> after it spawned, arrived at the node or got a new path. Active vehicles
+ *     are moved in the next tick and stay active as long as they remain on their node with paths left to follow.</li>
+ *     <li>A vehicle entering an edge is scheduled to leave it at the tick it entered the edge plus the duration of the
+ *     edge at that tick, which is exactly the first tick polling the edge would have moved the vehicle.</li>
+ * </ul>
+ * A tick therefore only costs time proportional to the number of vehicles that move. Within a tick, vehicles on nodes
+ * are still moved before vehicles on edges, and both are moved in the order of their ids.<p>
+ *
+ * The edge exits are kept in a hashed timing wheel: exit tick {@code t} is stored in slot {@code t % SLOTS}, together
+ * with exits of later rounds of the wheel. A tick only drains the slots of the ticks passed since the previous tick,
+ * usually a single one, so scheduling and draining an exit takes constant time and ticks without exits cost nothing.
+ * Ticks may also be skipped, {@link #nextTick(long)} tells which ticks can be skipped without missing a movement.<p>
+ *
+ * The state of the scheduler is kept in primitive arrays indexed by vehicle id: the slots only hold vehicle ids and the
+ * exit tick of every vehicle is stored once in {@link #exitTicks}, so moving a vehicle does not allocate anything. An
+ * entry of a slot is stale if the exit tick of its vehicle changed since, it is dropped when the slot is drained.<p>
+ *
+ * After {@link #parallelize(VehicleManagerImpl, int)} the moves of a tick are executed on multiple threads by a
+ * {@link ParallelMovement}, with the same results as the sequential execution.
+ */
+final class MovementScheduler {
+
+    /**
+     * The number of slots of the timing wheel, a power of two larger than the duration of most edges.
+     */
+    private static final int SLOTS = 256;
+
+    private final List<VehicleImpl> vehicles = new ArrayList<>();
+    private BitSet active = new BitSet();
+    private BitSet moving = new BitSet();
+
+    /**
+     * The tick every vehicle leaves its current edge at, only meaningful while the vehicle is on an edge.
+     */
+    private long[] exitTicks = new long[0];
+
+    /**
+     * The ids of the vehicles leaving an edge in a tick of slot {@code s} are {@code slots[s][0..slotSizes[s])}.
+     */
+    private final int[][] slots = new int[SLOTS][];
+    private final int[] slotSizes = new int[SLOTS];
+
+    /**
+     * The last tick whose slot has been drained. Exits scheduled for this tick or earlier, e.g. when a tick is executed
+     * twice, are kept in {@link #overdue} instead.
+     */
+    private long drainedTick = -1;
+    private final BitSet overdue = new BitSet();
+    private int exitCount;
+    private final BitSet due = new BitSet();
+    private final List<VehicleImpl> moves = new ArrayList<>();
+    private @Nullable ParallelMovement parallel;
+
+    MovementScheduler() {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            slots[slot] = new int[4];
+        }
+    }
+
+    /**
+     * Marks the given vehicle as active, so it is moved in the next tick if it is on a node.
+     *
+     * @param vehicle the vehicle
+     */
+    void activate(VehicleImpl vehicle) {
+        ParallelMovement.Shard shard = parallel == null ? null : parallel.currentShard();
+        if (shard != null) {
+            shard.activate(vehicle);
+            return;
+        }
+        register(vehicle);
+        active.set(vehicle.getId());
+    }
+
+    /**
+     * Schedules the given vehicle to leave the edge it is on.
+     *
+     * @param vehicle  the vehicle that entered an edge
+     * @param exitTick the first tick {@code vehicle} can leave the edge at
+     */
+    void scheduleExit(VehicleImpl vehicle, long exitTick) {
+        ParallelMovement.Shard shard = parallel == null ? null : parallel.currentShard();
+        if (shard != null) {
+            shard.scheduleExit(vehicle, exitTick);
+            return;
+        }
+        register(vehicle);
+        int id = vehicle.getId();
+        exitTicks[id] = exitTick;
+        if (exitTick <= drainedTick) {
+            overdue.set(id);
+        } else {
+            int slot = slot(exitTick);
+            int size = slotSizes[slot];
+            if (size == slots[slot].length) {
+                slots[slot] = Arrays.copyOf(slots[slot], 2 * size);
+            }
+            slots[slot][size] = id;
+            slotSizes[slot] = size + 1;
+            exitCount++;
+        }
+    }
+
+    private void register(VehicleImpl vehicle) {
+        int id = vehicle.getId();
+        while (vehicles.size() <= id) {
+            vehicles.add(null);
+        }
+        vehicles.set(id, vehicle);
+        if (exitTicks.length <= id) {
+            exitTicks = Arrays.copyOf(exitTicks, Math.max(id + 1, 2 * exitTicks.length));
+        }
+    }
+
+    /**
+     * Collects the given event if it was posted by a move executed by a {@link ParallelMovement}, so it can be posted in
+     * the order of the sequential execution.
+     *
+     * @param event the event
+     * @return {@code true} if the event was collected, {@code false} if it has to be posted directly
+     */
+    boolean collect(Event event) {
+        ParallelMovement.Shard shard = parallel == null ? null : parallel.currentShard();
+        if (shard == null) {
+            return false;
+        }
+        shard.post(event);
+        return true;
+    }
+
+    /**
+     * Executes the moves of all following ticks on the given number of threads.
+     *
+     * @param vehicleManager the vehicle manager whose vehicles are moved
+     * @param parallelism    the number of threads
+     */
+    void parallelize(VehicleManagerImpl vehicleManager, int parallelism) {
+        parallel = new ParallelMovement(vehicleManager, parallelism);
+    }
+
+    /**
+     * Returns the first tick from the given tick on in which a vehicle may move, ticks before it can be skipped.
+     *
+     * @param fromTick the next tick that would be executed
+     * @return the first tick {@code >= fromTick} in which a vehicle may move or {@code -1} if no movement is scheduled
+     */
+    long nextTick(long fromTick) {
+        for (int id = overdue.nextSetBit(0); id >= 0; id = overdue.nextSetBit(id + 1)) {
+            if (isOnEdge(id)) {
+                return fromTick;
+            }
+        }
+        for (int id = active.nextSetBit(0); id >= 0; id = active.nextSetBit(id + 1)) {
+            VehicleImpl vehicle = vehicles.get(id);
+            if (vehicle.hasPaths() && vehicle.getOccupied() instanceof OccupiedNodeImpl<?>) {
+                return fromTick;
+            }
+        }
+        long next = Long.MAX_VALUE;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            for (int i = 0; i < slotSizes[slot]; i++) {
+                int id = slots[slot][i];
+                if (isOnEdge(id)) {
+                    next = Math.min(next, exitTicks[id]);
+                }
+            }
+        }
+        return next == Long.MAX_VALUE ? -1 : Math.max(next, fromTick);
+    }
+
+    private boolean isOnEdge(int id) {
+        return vehicles.get(id).getOccupied() instanceof OccupiedEdgeImpl;
+    }
+
+    /**
+     * Moves all vehicles that can move in the given tick.
+     *
+     * @param currentTick the current tick
+     */
+    void tick(long currentTick) {
+        // vehicles activated while moving are moved in the next tick, like vehicles arriving at a node
+        BitSet moving = active;
+        active = this.moving;
+        this.moving = moving;
+        if (parallel == null) {
+            for (int id = moving.nextSetBit(0); id >= 0; id = moving.nextSetBit(id + 1)) {
+                moveFromNode(vehicles.get(id), currentTick);
+            }
+        } else {
+            parallel.moveAll(toVehicles(moving), this::classifyNodeMove, vehicle -> vehicle.move(currentTick),
+                vehicle -> moveFromNode(vehicle, currentTick), this);
+        }
+        moving.clear();
+
+        collectDueExits(currentTick);
+        if (parallel == null) {
+            for (int id = due.nextSetBit(0); id >= 0; id = due.nextSetBit(id + 1)) {
+                moveFromEdge(vehicles.get(id), currentTick);
+            }
+        } else {
+            parallel.moveAll(toVehicles(due), vehicle -> classifyEdgeMove(vehicle, currentTick),
+                vehicle -> vehicle.move(currentTick), vehicle -> moveFromEdge(vehicle, currentTick), this);
+        }
+        due.clear();
+        moves.clear();
+    }
+
+    private List<VehicleImpl> toVehicles(BitSet ids) {
+        moves.clear();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            moves.add(vehicles.get(id));
+        }
+        return moves;
+    }
+
+    private void moveFromNode(VehicleImpl vehicle, long currentTick) {
+        if (vehicle.getOccupied() instanceof OccupiedNodeImpl<?> node && node.vehicles.containsKey(vehicle)) {
+            vehicle.move(currentTick);
+            if (vehicle.getOccupied() == node && vehicle.hasPaths()) {
+                active.set(vehicle.getId());
+            }
+        }
+    }
+
+    private void moveFromEdge(VehicleImpl vehicle, long currentTick) {
+        if (!isLeaving(vehicle, currentTick)) {
+            return;
+        }
+        AbstractOccupied<?> edge = (AbstractOccupied<?>) vehicle.getOccupied();
+        vehicle.move(currentTick);
+        if (vehicle.getOccupied() == edge) {
+            // the vehicle did not leave the edge, try again in the next tick
+            scheduleExit(vehicle, currentTick + 1);
+        }
+    }
+
+    /**
+     * Returns whether the given vehicle is on an edge it can leave in the given tick. It may have been moved by
+     * ticking an occupied component directly since its exit was scheduled.
+     */
+    private boolean isLeaving(VehicleImpl vehicle, long currentTick) {
+        return vehicle.getOccupied() instanceof OccupiedEdgeImpl edge && edge.vehicles.containsKey(vehicle)
+            && exitTicks[vehicle.getId()] <= currentTick;
+    }
+
+    private int classifyNodeMove(VehicleImpl vehicle) {
+        if (!(vehicle.getOccupied() instanceof OccupiedNodeImpl<?> node) || !node.vehicles.containsKey(vehicle)
+            || !vehicle.hasPaths()) {
+            return ParallelMovement.SKIP;
+        }
+        return classify(node, vehicle.nextOccupied());
+    }
+
+    private int classifyEdgeMove(VehicleImpl vehicle, long currentTick) {
+        if (!isLeaving(vehicle, currentTick)) {
+            return ParallelMovement.SKIP;
+        }
+        return classify((AbstractOccupied<?>) vehicle.getOccupied(), vehicle.nextOccupied());
+    }
+
+    private static int classify(AbstractOccupied<?> from, @Nullable AbstractOccupied<?> to) {
+        if (to == null) {
+            return ParallelMovement.BARRIER;
+        }
+        return from.shard >= 0 && from.shard == to.shard ? from.shard : ParallelMovement.CROSS_SHARD;
+    }
+
+    /**
+     * Removes all exits up to the given tick from the timing wheel and marks their vehicles in {@link #due}.
+     */
+    private void collectDueExits(long currentTick) {
+        due.or(overdue);
+        overdue.clear();
+        if (currentTick > drainedTick && exitCount > 0) {
+            if (currentTick - drainedTick >= SLOTS) {
+                // every slot has passed at least once
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    drain(slot, currentTick);
+                }
+            } else {
+                for (long tick = drainedTick + 1; tick <= currentTick; tick++) {
+                    drain(slot(tick), currentTick);
+                }
+            }
+        }
+        drainedTick = Math.max(drainedTick, currentTick);
+    }
+
+    /**
+     * Marks the vehicles of the given slot leaving up to the given tick in {@link #due} and drops stale entries, exits
+     * of later rounds of the wheel stay.
+     */
+    private void drain(int slot, long currentTick) {
+        int[] ids = slots[slot];
+        int size = slotSizes[slot];
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            long exitTick = exitTicks[id];
+            if (exitTick <= currentTick) {
+                due.set(id);
+            } else if (slot(exitTick) == slot) {
+                ids[kept++] = id;
+            }
+        }
+        slotSizes[slot] = kept;
+        exitCount -= size - kept;
+    }
+
+    private static int slot(long tick) {
+        return (int) (tick & (SLOTS - 1));
+    }
+
+    /**
+     * Forgets all scheduled movements.
+     */
+    void clear() {
+        active.clear();
+        Arrays.fill(slotSizes, 0);
+        overdue.clear();
+        exitCount = 0;
+        drainedTick = -1;
+    }
+}
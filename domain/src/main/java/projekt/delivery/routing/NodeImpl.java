@@ -3,8 +3,12 @@ package projekt.delivery.routing;
 import org.jetbrains.annotations.Nullable;
 import projekt.base.Location;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 
@@ -17,6 +21,22 @@ class NodeImpl implements Region.Node {
     protected final String name;
     protected final Location location;
 
+    /**
+     * The adjacency index of this node, set by {@link #freeze(int, EdgeImpl[], Region.Node[])} or {@code null} if the
+     * region was not frozen or modified afterwards.
+     */
+    private @Nullable Adjacency adjacency;
+
+    /**
+     * The index of this node in the nodes of its frozen region or {@code -1}, see {@link #freeze(int, EdgeImpl[], Region.Node[])}.
+     */
+    int id = -1;
+
+    /**
+     * The cached result of {@link #hashCode()}, only valid while {@link #adjacency} is set.
+     */
+    private int hash;
+
     /**
      * Creates a new {@link NodeImpl} instance.
      * @param region The {@link Region} this {@link NodeImpl} belongs to.
@@ -63,6 +83,19 @@ class NodeImpl implements Region.Node {
      */
     @Override
     public @Nullable Region.Edge getEdge(Region.Node other) {
+        Adjacency adjacency = this.adjacency;
+        if (adjacency != null) {
+            Location otherLocation = other.getLocation();
+            for (EdgeImpl edge : adjacency.edgeArray) {
+                Location opposite = edge.getLocationA().equals(location) ? edge.getLocationB() : edge.getLocationA();
+                if (opposite.equals(otherLocation)) {
+                    Region.Node node = region.getNode(otherLocation);
+                    return node == other || other.equals(node) ? edge : null;
+                }
+            }
+            return null;
+        }
+
         if (!region.getNodes().contains(this) || !region.getNodes().contains(other)) {
             return null;
         }
@@ -82,10 +115,15 @@ class NodeImpl implements Region.Node {
     /**
      * This method returns all nodes connected to the (current) node.
      *
-     * @return all nodes connected to the (current) node. If a node has an edge to itself, the node itself should also be returned.
+     * @return all nodes connected to the (current) node as an unmodifiable set. If a node has an edge to itself, the node itself should also be returned.
      */
     @Override
     public Set<Region.Node> getAdjacentNodes() {
+        Adjacency adjacency = this.adjacency;
+        if (adjacency != null) {
+            return adjacency.nodes;
+        }
+
         Set<Region.Node> adjacentNodes = new HashSet<Region.Node>();
         Collection<Region.Edge> allEdges = region.getEdges();
         for(Region.Edge edge : allEdges){
@@ -94,17 +132,23 @@ class NodeImpl implements Region.Node {
             if(edge.getNodeB() == region.getNode(location))
                 adjacentNodes.add(edge.getNodeA());
         }
-        return adjacentNodes;
+        // the index of a frozen region is shared, so neither result may be modified
+        return Collections.unmodifiableSet(adjacentNodes);
          // TODO: H3.2 - remove if implemented
     }
 
     /**
      * This method returns all edges connected to the (current) node.
      *
-     * @return returns all edges connected to the (current) node. If a node has an edge to itself, this should also be returned.
+     * @return returns all edges connected to the (current) node as an unmodifiable set. If a node has an edge to itself, this should also be returned.
      */
     @Override
     public Set<Region.Edge> getAdjacentEdges() {
+        Adjacency adjacency = this.adjacency;
+        if (adjacency != null) {
+            return adjacency.edges;
+        }
+
         Set<Region.Edge> adjacentEdges = new HashSet<Region.Edge>();
         Collection<Region.Edge> allEdges = region.getEdges();
         for(Region.Edge edge : allEdges){
@@ -113,10 +157,34 @@ class NodeImpl implements Region.Node {
             if(edge.getNodeB() == region.getNode(location))
                 adjacentEdges.add(edge);
         }
-        return adjacentEdges;
+        return Collections.unmodifiableSet(adjacentEdges);
         // TODO: H3.3 - remove if implemented
     }
 
+    /**
+     * Called when the region of this node is frozen, i.e. when its nodes and edges do not change anymore.<p>
+     *
+     * Replaces the linear scans over all edges of the region by an index of the given edges and caches the hash code
+     * of this node, which depends on its connections. Both are used until {@link #unfreeze()} is called.
+     *
+     * @param id    the index of this node in the nodes of the region
+     * @param edges all edges of the region that are connected to this node without duplicates, self-loops only once
+     * @param nodes the nodes on the other end of {@code edges}, in the same order
+     */
+    void freeze(int id, EdgeImpl[] edges, Region.Node[] nodes) {
+        this.id = id;
+        hash = Objects.hash(name, location, connections);
+        adjacency = new Adjacency(new ArraySet<>(nodes), new ArraySet<>(edges), edges);
+    }
+
+    /**
+     * Drops the index and hash code cached by {@link #freeze(int, EdgeImpl[], Region.Node[])}.
+     */
+    void unfreeze() {
+        adjacency = null;
+        id = -1;
+    }
+
     /**
      * THis method calls the compareTo method with the location of o and return that value.
      *
@@ -140,6 +208,8 @@ class NodeImpl implements Region.Node {
             return false;
         if(o == this)
             return true;
+        if (adjacency != null && ((NodeImpl) o).adjacency != null && hash != ((NodeImpl) o).hash)
+            return false;
         return (Objects.equals(this.name, ((NodeImpl) o).name)
             && Objects.equals(this.location, ((NodeImpl) o).location)
             && Objects.equals(this.connections, ((NodeImpl) o).connections));
@@ -153,6 +223,9 @@ class NodeImpl implements Region.Node {
      */
     @Override
     public int hashCode() {
+        if (adjacency != null) {
+            return hash;
+        }
         return Objects.hash(name, location, connections);
         // TODO: H3.6 - remove if implemented
     }
@@ -167,4 +240,51 @@ class NodeImpl implements Region.Node {
         return "NodeImpl(name='"+ name + "', location='" + location +"', connections='" + connections +"')";
         // TODO: H3.7 - remove if implemented
     }
+
+    /**
+     * The adjacent nodes and edges of a node in a frozen region.
+     *
+     * @param nodes     the unmodifiable set of adjacent nodes
+     * @param edges     the unmodifiable set of adjacent edges
+     * @param edgeArray the adjacent edges, for lookups without iterator allocation
+     */
+    private record Adjacency(
+        Set<Region.Node> nodes,
+        Set<Region.Edge> edges,
+        EdgeImpl[] edgeArray
+    ) {
+    }
+
+    /**
+     * An unmodifiable set backed by an array without duplicates. Nodes have few edges, so a linear search is faster
+     * and needs less memory than hashing.
+     */
+    private static final class ArraySet<E> extends AbstractSet<E> {
+
+        private final E[] elements;
+
+        ArraySet(E[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (E element : elements) {
+                if (element.equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return Arrays.asList(elements).iterator();
+        }
+    }
 }
@@ -20,12 +20,21 @@ class OccupiedEdgeImpl extends AbstractOccupied<Region.Edge> {
     public void tick(long currentTick) {
         // it is important to create a copy here. The move method in vehicle will probably modify this map
         for (Map.Entry<VehicleImpl, VehicleStats> entry : List.copyOf(vehicles.entrySet())) {
-            if (currentTick >= entry.getValue().arrived + component.getDuration()) {
+            if (currentTick >= entry.getValue().arrived + getDuration(entry.getValue().arrived)) {
                 entry.getKey().move(currentTick);
             }
         }
     }
 
+    /**
+     * Returns the number of ticks a vehicle needs for this edge when entering it at the given tick.
+     */
+    private long getDuration(long departureTick) {
+        return vehicleManager instanceof VehicleManagerImpl impl
+            ? impl.getDuration(component, departureTick)
+            : component.getDuration();
+    }
+
     @Override
     public void addVehicle(VehicleImpl vehicle, long currentTick) {
         if (vehicles.containsKey(vehicle)) {
@@ -36,12 +45,14 @@ class OccupiedEdgeImpl extends AbstractOccupied<Region.Edge> {
             throw new AssertionError("Vehicle " + vehicle.getId() + " cannot move directly from edge to edge");
         }
         final OccupiedNodeImpl<?> previousNode = (OccupiedNodeImpl<?>) previous;
-        if (previousNode.vehicles.remove(vehicle) == null) {
+        if (!moveVehicle(vehicle, previousNode, currentTick)) {
             throw new AssertionError("Vehicle " + vehicle.getId() + " was not found in previous node");
         }
-        vehicles.put(vehicle, new VehicleStats(currentTick, previous));
         vehicle.setOccupied(this);
-        vehicleManager.getEventBus().queuePost(ArrivedAtEdgeEvent.of(
+        if (vehicleManager instanceof VehicleManagerImpl impl) {
+            impl.scheduler.scheduleExit(vehicle, currentTick + getDuration(currentTick));
+        }
+        postMovementEvent(ArrivedAtEdgeEvent.of(
                 currentTick,
                 vehicle,
                 component,
@@ -35,16 +35,18 @@ class OccupiedNodeImpl<C extends Region.Node> extends AbstractOccupied<C> {
             throw new AssertionError("Vehicle " + vehicle.getId() + " cannot move directly from node to node");
         }
         final OccupiedEdgeImpl previousEdge = (OccupiedEdgeImpl) previous;
-        if (previousEdge.vehicles.remove(vehicle) == null) {
+        if (!moveVehicle(vehicle, previousEdge, currentTick)) {
             throw new AssertionError("Vehicle " + vehicle.getId() + " was not found in previous edge");
         }
-        vehicles.put(vehicle, new VehicleStats(currentTick, previous));
         vehicle.setOccupied(this);
+        if (vehicleManager instanceof VehicleManagerImpl impl) {
+            impl.scheduler.activate(vehicle);
+        }
         emitArrivedEvent(vehicle, previousEdge, currentTick);
     }
 
     protected void emitArrivedEvent(VehicleImpl vehicle, OccupiedEdgeImpl previousEdge, long tick) {
-        vehicleManager.getEventBus().queuePost(ArrivedAtNodeEvent.of(
+        postMovementEvent(ArrivedAtNodeEvent.of(
                 tick,
                 vehicle,
                 component,
@@ -0,0 +1,269 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+import projekt.delivery.event.Event;
+import projekt.delivery.event.EventBus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Moves the vehicles of a {@link MovementScheduler} on multiple threads.<p>
+ *
+ * The region is split into cells by a {@link RegionPartition} and the cells are distributed over a number of shards.
+ * Every node and every edge inside a cell belongs to the shard of the cell, edges between cells belong to no shard.
+ * A move from a component of a shard to another component of the same shard only touches the occupied components of
+ * this shard, so the moves of different shards can be executed in parallel. All other moves are executed
+ * sequentially:
+ * <ul>
+ *     <li>Moves onto and off edges between cells are executed after the parallel moves. They commute with the other
+ *     moves, since every move only changes the entries of its own vehicle.</li>
+ *     <li>Moves that finish a path call the arrival action, which may look at and change any vehicle. All moves before
+ *     it are completed first and it is executed on the calling thread, so it sees the same state as in the sequential
+ *     engine.</li>
+ * </ul>
+ * Events, activations and edge exits of the parallel and cross-shard moves are collected per shard and merged in the
+ * order of the moves, which is the order of the vehicle ids, so the events are identical to the sequential engine. The
+ * buffers of the shards are reused in every tick and the moves are only referred to by their index, so executing a
+ * move does not allocate anything besides its event.
+ */
+final class ParallelMovement {
+
+    /**
+     * The classification of a move that has to be executed after the parallel moves.
+     */
+    static final int CROSS_SHARD = -1;
+
+    /**
+     * The classification of a move that has to be executed on its own after all previous moves.
+     */
+    static final int BARRIER = -2;
+
+    /**
+     * The classification of a move that does nothing.
+     */
+    static final int SKIP = -3;
+
+    /**
+     * The minimum number of moves worth distributing over the threads of the pool.
+     */
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    /**
+     * The minimum number of nodes of a cell of the region, smaller cells cut too many edges.
+     */
+    private static final int MIN_CELL_SIZE = 128;
+
+    /**
+     * The pools shared by all vehicle managers with the same parallelism. Idle workers of a pool terminate after a
+     * while, so the pools never have to be shut down.
+     */
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final ForkJoinPool pool;
+    private final EventBus eventBus;
+    private final Shard[] shards;
+    private final Shard crossShard = new Shard();
+    private final ThreadLocal<Shard> currentShard = new ThreadLocal<>();
+    private final List<Event> merged = new ArrayList<>();
+    private final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    private int pending;
+
+    /**
+     * Creates a new {@link ParallelMovement} for the given vehicle manager and assigns all its occupied components to
+     * shards.
+     *
+     * @param vehicleManager the vehicle manager whose vehicles are moved
+     * @param parallelism    the number of threads
+     */
+    ParallelMovement(VehicleManagerImpl vehicleManager, int parallelism) {
+        pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        eventBus = vehicleManager.getEventBus();
+        CompiledRegion graph = CompiledRegion.of(vehicleManager.getRegion());
+        // a few cells per thread keep the shards balanced without cutting too many edges
+        int cellSize = Math.max(MIN_CELL_SIZE, graph.nodeCount() / (4 * parallelism));
+        RegionPartition partition = RegionPartition.of(graph, cellSize);
+        shards = new Shard[Math.max(1, Math.min(parallelism, partition.cellCount()))];
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard] = new Shard();
+        }
+        for (OccupiedNodeImpl<?> node : vehicleManager.occupiedNodes.values()) {
+            node.shard = partition.cellOf(node.getComponent()) % shards.length;
+        }
+        for (OccupiedEdgeImpl edge : vehicleManager.occupiedEdges.values()) {
+            int id = graph.requireEdgeId(edge.getComponent());
+            edge.shard = partition.isCutEdge(id) ? -1 : partition.cellOf(graph.edgeNodeA(id)) % shards.length;
+        }
+    }
+
+    /**
+     * Returns the shard whose moves are executed by the current thread, or {@code null} if the current thread does not
+     * execute moves of a shard.
+     *
+     * @return the shard of the current thread
+     */
+    @Nullable Shard currentShard() {
+        return currentShard.get();
+    }
+
+    /**
+     * Executes the given moves, which would be executed in the given order by the sequential engine.
+     *
+     * @param moves      the vehicles to move in the order of the sequential engine
+     * @param classifier returns the shard of a move, {@link #CROSS_SHARD}, {@link #BARRIER} or {@link #SKIP}
+     * @param plainMove  executes a move that only enters the next component of a vehicle
+     * @param barrier    executes a move with all side effects of the sequential engine
+     * @param scheduler  the scheduler to hand the collected activations and edge exits to
+     */
+    void moveAll(
+        List<VehicleImpl> moves,
+        ToIntFunction<VehicleImpl> classifier,
+        Consumer<VehicleImpl> plainMove,
+        Consumer<VehicleImpl> barrier,
+        MovementScheduler scheduler
+    ) {
+        for (int index = 0; index < moves.size(); index++) {
+            VehicleImpl vehicle = moves.get(index);
+            int shard = classifier.applyAsInt(vehicle);
+            if (shard == SKIP) {
+                continue;
+            }
+            if (shard == BARRIER) {
+                flush(plainMove, scheduler);
+                barrier.accept(vehicle);
+            } else {
+                (shard == CROSS_SHARD ? crossShard : shards[shard]).add(index, vehicle);
+                pending++;
+            }
+        }
+        flush(plainMove, scheduler);
+    }
+
+    /**
+     * Executes all collected moves and merges their results.
+     */
+    private void flush(Consumer<VehicleImpl> plainMove, MovementScheduler scheduler) {
+        if (pending == 0) {
+            return;
+        }
+        if (pending >= PARALLEL_THRESHOLD) {
+            tasks.clear();
+            for (Shard shard : shards) {
+                if (shard.moveCount > 0) {
+                    tasks.add(ForkJoinTask.adapt(() -> execute(shard, plainMove)));
+                }
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        } else {
+            for (Shard shard : shards) {
+                execute(shard, plainMove);
+            }
+        }
+        execute(crossShard, plainMove);
+
+        // the events of every shard are ordered by the index of their move, merge them
+        for (Shard shard : shards) {
+            shard.next = 0;
+        }
+        crossShard.next = 0;
+        while (true) {
+            Shard first = crossShard.next < crossShard.events.size() ? crossShard : null;
+            for (Shard shard : shards) {
+                if (shard.next < shard.events.size()
+                    && (first == null || shard.eventIndices[shard.next] < first.eventIndices[first.next])) {
+                    first = shard;
+                }
+            }
+            if (first == null) {
+                break;
+            }
+            merged.add(first.events.get(first.next++));
+        }
+        eventBus.queuePost(merged);
+        merged.clear();
+
+        for (Shard shard : shards) {
+            shard.drainInto(scheduler);
+        }
+        crossShard.drainInto(scheduler);
+        pending = 0;
+    }
+
+    private void execute(Shard shard, Consumer<VehicleImpl> plainMove) {
+        currentShard.set(shard);
+        try {
+            for (int i = 0; i < shard.moveCount; i++) {
+                shard.index = shard.moveIndices[i];
+                plainMove.accept(shard.moves.get(i));
+            }
+        } finally {
+            currentShard.remove();
+        }
+    }
+
+    /**
+     * The moves of a shard and the results collected while executing them.
+     */
+    static final class Shard {
+
+        private final List<VehicleImpl> moves = new ArrayList<>();
+        private int[] moveIndices = new int[16];
+        private int moveCount;
+        private final List<Event> events = new ArrayList<>();
+        private int[] eventIndices = new int[16];
+        private final List<VehicleImpl> activated = new ArrayList<>();
+        private final List<VehicleImpl> exits = new ArrayList<>();
+        private long[] exitTicks = new long[16];
+        private int index;
+        private int next;
+
+        private void add(int index, VehicleImpl vehicle) {
+            if (moveCount == moveIndices.length) {
+                moveIndices = Arrays.copyOf(moveIndices, 2 * moveCount);
+            }
+            moveIndices[moveCount++] = index;
+            moves.add(vehicle);
+        }
+
+        void post(Event event) {
+            if (events.size() == eventIndices.length) {
+                eventIndices = Arrays.copyOf(eventIndices, 2 * eventIndices.length);
+            }
+            eventIndices[events.size()] = index;
+            events.add(event);
+        }
+
+        void activate(VehicleImpl vehicle) {
+            activated.add(vehicle);
+        }
+
+        void scheduleExit(VehicleImpl vehicle, long exitTick) {
+            if (exits.size() == exitTicks.length) {
+                exitTicks = Arrays.copyOf(exitTicks, 2 * exitTicks.length);
+            }
+            exitTicks[exits.size()] = exitTick;
+            exits.add(vehicle);
+        }
+
+        private void drainInto(MovementScheduler scheduler) {
+            for (VehicleImpl vehicle : activated) {
+                scheduler.activate(vehicle);
+            }
+            for (int i = 0; i < exits.size(); i++) {
+                scheduler.scheduleExit(exits.get(i), exitTicks[i]);
+            }
+            moves.clear();
+            moveCount = 0;
+            events.clear();
+            activated.clear();
+            exits.clear();
+        }
+    }
+}
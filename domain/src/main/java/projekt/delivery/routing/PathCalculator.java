@@ -1,5 +1,6 @@
 package projekt.delivery.routing;
 
+import java.util.Collection;
 import java.util.Deque;
 import java.util.Map;
 
@@ -25,4 +26,66 @@ public interface PathCalculator {
      * (excluding start and including end) that represent the path from start to end
      */
     Map<Region.Node, Deque<Region.Node>> getAllPathsTo(Region.Node end);
+
+    /**
+     * Calculates the duration of the shortest path from {@code start} to {@code end}.<p>
+     *
+     * By default, the durations of all edges on the path returned by {@link #getPath(Region.Node, Region.Node)} are
+     * summed up. Implementations that know the duration without reconstructing the path should override this method.
+     *
+     * @param start The start {@link Region.Node}
+     * @param end   The end {@link Region.Node}
+     * @return The sum of the durations of all edges on the shortest path from start to end
+     */
+    default long getDistance(Region.Node start, Region.Node end) {
+        return duration(start, getPath(start, end));
+    }
+
+    /**
+     * Calculates the durations of the shortest paths from every node in {@code sources} to every node in
+     * {@code targets}.<p>
+     *
+     * By default, {@link #getAllPathsTo(Region.Node)} is called once per target and the durations of the edges of the
+     * returned paths are summed up. Implementations should override this method with a many-to-many search.
+     *
+     * @param sources The start {@link Region.Node}s
+     * @param targets The end {@link Region.Node}s
+     * @return A table whose entry {@code [i][j]} is the duration of the shortest path from the {@code i}-th source to
+     * the {@code j}-th target in iteration order, or {@link Long#MAX_VALUE} if there is no such path
+     */
+    default long[][] getDistanceTable(Collection<? extends Region.Node> sources, Collection<? extends Region.Node> targets) {
+        long[][] table = new long[sources.size()][targets.size()];
+        int j = 0;
+        for (Region.Node target : targets) {
+            Map<Region.Node, Deque<Region.Node>> paths = getAllPathsTo(target);
+            int i = 0;
+            for (Region.Node source : sources) {
+                Deque<Region.Node> path = paths.get(source);
+                table[i++][j] = path == null ? Long.MAX_VALUE : duration(source, path);
+            }
+            j++;
+        }
+        return table;
+    }
+
+    /**
+     * Sums up the durations of the edges of the given path.
+     *
+     * @param start The start {@link Region.Node} of the path
+     * @param path  The nodes of the path, excluding start
+     * @return The duration of the path
+     */
+    private static long duration(Region.Node start, Deque<Region.Node> path) {
+        long distance = 0;
+        Region.Node previous = start;
+        for (Region.Node node : path) {
+            Region.Edge edge = previous.getEdge(node);
+            if (edge == null) {
+                throw new IllegalStateException("Path contains nodes %s and %s which are not connected".formatted(previous, node));
+            }
+            distance += edge.getDuration();
+            previous = node;
+        }
+        return distance;
+    }
 }
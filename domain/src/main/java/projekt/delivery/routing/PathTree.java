@@ -0,0 +1,275 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The shortest paths from every node of a {@link CompiledRegion} to a single end node, stored as a tree.<p>
+ *
+ * For every node only the id of the next node on its path and the number of edges to the end node are stored, so a
+ * tree needs two ints per node instead of a node reference per node on every path. Paths are not materialized; they
+ * are handed out as {@link SharedPathDeque} views that walk the tree, so all paths share their common suffixes.
+ */
+final class PathTree {
+
+    private final CompiledRegion graph;
+    private final int end;
+
+    /**
+     * The id of the next node on the path to {@link #end} or {@code -1} for the end node and unreachable nodes.
+     */
+    private final int[] next;
+
+    /**
+     * The number of edges on the path to {@link #end} or {@code -1} for unreachable nodes.
+     */
+    private final int[] hops;
+
+    private int reachableCount;
+
+    /**
+     * Creates a new {@link PathTree}.
+     *
+     * @param graph the compiled region
+     * @param end   the id of the end node
+     * @param next  the id of the next node on the path to {@code end} for every node or {@code -1} for {@code end}
+     *              and unreachable nodes. The array is used directly and must not be modified afterwards.
+     */
+    PathTree(CompiledRegion graph, int end, int[] next) {
+        this.graph = graph;
+        this.end = end;
+        this.next = next;
+        hops = new int[graph.nodeCount()];
+        computeHops();
+    }
+
+    /**
+     * Creates the {@link PathTree} of the search in the given {@link SearchSpace}, which was started at {@code end}.
+     *
+     * @param graph the compiled region that was searched
+     * @param space the search space of a completed search from {@code end}
+     * @param end   the id of the end node
+     * @return the tree of the predecessors in {@code space}
+     */
+    static PathTree of(CompiledRegion graph, SearchSpace space, int end) {
+        int[] next = new int[graph.nodeCount()];
+        for (int node = 0; node < next.length; node++) {
+            next[node] = space.predecessor(node);
+        }
+        return new PathTree(graph, end, next);
+    }
+
+    /**
+     * Creates the {@link PathTree} of paths returned by {@link PathCalculator#getAllPathsTo(Region.Node)}.
+     *
+     * @param graph the compiled region of the paths
+     * @param end   the end node of all paths
+     * @param paths the paths to {@code end}
+     * @return the tree of the first nodes of all paths
+     */
+    static PathTree of(CompiledRegion graph, Region.Node end, Map<Region.Node, Deque<Region.Node>> paths) {
+        int[] next = new int[graph.nodeCount()];
+        Arrays.fill(next, -1);
+        for (Map.Entry<Region.Node, Deque<Region.Node>> entry : paths.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                next[graph.requireId(entry.getKey())] = graph.requireId(entry.getValue().getFirst());
+            }
+        }
+        return new PathTree(graph, graph.requireId(end), next);
+    }
+
+    /**
+     * Computes {@link #hops} by walking every node towards the end node until a node with known hops is found.
+     */
+    private void computeHops() {
+        Arrays.fill(hops, Integer.MIN_VALUE);
+        hops[end] = 0;
+        int[] stack = new int[hops.length];
+        for (int node = 0; node < hops.length; node++) {
+            int size = 0;
+            int current = node;
+            while (hops[current] == Integer.MIN_VALUE && next[current] >= 0) {
+                stack[size++] = current;
+                current = next[current];
+            }
+            int count = hops[current] == Integer.MIN_VALUE ? -1 : hops[current];
+            hops[current] = count;
+            while (size > 0) {
+                count = count < 0 ? -1 : count + 1;
+                hops[stack[--size]] = count;
+            }
+        }
+        for (int hop : hops) {
+            if (hop >= 0) {
+                reachableCount++;
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled region of this tree.
+     *
+     * @return the compiled region
+     */
+    CompiledRegion graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the path from the given node to the end node of this tree.
+     *
+     * @param start the id of the start node
+     * @return the path from {@code start} (excluded) to the end node (included) or {@code null} if there is none
+     */
+    @Nullable Deque<Region.Node> path(int start) {
+        return hops[start] < 0 ? null : new TreeView(start);
+    }
+
+    /**
+     * Returns an unmodifiable map view of all paths to the end node. Paths are only created when they are accessed.
+     *
+     * @return the paths to the end node of every node that can reach it
+     */
+    Map<Region.Node, Deque<Region.Node>> paths() {
+        return new PathMap();
+    }
+
+    /**
+     * A view of the path from a node to the end node of the tree.
+     */
+    private final class TreeView extends SharedPathDeque {
+
+        /**
+         * The id of the node before the first remaining node of the path.
+         */
+        private int before;
+
+        TreeView(int start) {
+            before = start;
+        }
+
+        @Override
+        int sharedSize() {
+            return hops[before];
+        }
+
+        @Override
+        Region.Node sharedFirst() {
+            return graph.node(next[before]);
+        }
+
+        @Override
+        Region.Node sharedLast() {
+            return graph.node(end);
+        }
+
+        @Override
+        void sharedRemoveFirst() {
+            before = next[before];
+        }
+
+        @Override
+        Region.Node sharedPollLast() {
+            return copy().pollLast();
+        }
+
+        @Override
+        void sharedClear() {
+            before = end;
+        }
+
+        @Override
+        Iterator<Region.Node> sharedIterator() {
+            return new Iterator<>() {
+                private int current = before;
+
+                @Override
+                public boolean hasNext() {
+                    return current != end;
+                }
+
+                @Override
+                public Region.Node next() {
+                    if (current == end) {
+                        throw new NoSuchElementException();
+                    }
+                    current = next[current];
+                    return graph.node(current);
+                }
+            };
+        }
+    }
+
+    /**
+     * An unmodifiable map view of all paths of the tree.
+     */
+    private final class PathMap extends AbstractMap<Region.Node, Deque<Region.Node>> {
+
+        @Override
+        public int size() {
+            return reachableCount;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Region.Node node && get(node) != null;
+        }
+
+        @Override
+        public @Nullable Deque<Region.Node> get(Object key) {
+            if (!(key instanceof Region.Node node) || node.getRegion() != graph.getRegion()) {
+                return null;
+            }
+            int id = graph.idOf(node);
+            return id < 0 ? null : path(id);
+        }
+
+        @Override
+        public Set<Entry<Region.Node, Deque<Region.Node>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return reachableCount;
+                }
+
+                @Override
+                public Iterator<Entry<Region.Node, Deque<Region.Node>>> iterator() {
+                    return new Iterator<>() {
+                        private int node = advance(0);
+
+                        private int advance(int from) {
+                            while (from < hops.length && hops[from] < 0) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return node < hops.length;
+                        }
+
+                        @Override
+                        public Entry<Region.Node, Deque<Region.Node>> next() {
+                            if (node >= hops.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<Region.Node, Deque<Region.Node>> entry =
+                                new SimpleImmutableEntry<>(graph.node(node), new TreeView(node));
+                            node = advance(node + 1);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
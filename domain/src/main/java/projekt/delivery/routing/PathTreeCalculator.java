@@ -0,0 +1,16 @@
+package projekt.delivery.routing;
+
+/**
+ * A {@link PathCalculator} that can return the shortest paths to an end node as a compact {@link PathTree} instead of
+ * a map of materialized paths.
+ */
+interface PathTreeCalculator extends PathCalculator {
+
+    /**
+     * Calculates the shortest paths from every node of the region of {@code end} to {@code end}.
+     *
+     * @param end the end node of all paths
+     * @return the tree of all shortest paths to {@code end}
+     */
+    PathTree getPathTree(Region.Node end);
+}
@@ -7,6 +7,7 @@ import projekt.base.Location;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.ToLongBiFunction;
 
 /**
  * Represents A Region using a graph.
@@ -21,6 +22,26 @@ public interface Region {
         return new RegionBuilderImpl();
     }
 
+    /**
+     * Returns a new {@link Region.Builder} instance for large regions whose storage grows with the added components.
+     * @return A new {@link Region.Builder} instance for large regions.
+     * @see #bulkBuilder(int, int)
+     */
+    static Builder bulkBuilder() {
+        return bulkBuilder(0, 0);
+    }
+
+    /**
+     * Returns a new {@link Region.Builder} instance for large regions that stores all components in pre-sized
+     * primitive arrays. Edges are added to the {@link Region} in the order they were added to the builder.
+     * @param expectedNodeCount The expected number of {@link Node}s.
+     * @param expectedEdgeCount The expected number of {@link Edge}s.
+     * @return A new {@link Region.Builder} instance for large regions.
+     */
+    static Builder bulkBuilder(int expectedNodeCount, int expectedEdgeCount) {
+        return new BulkRegionBuilderImpl(expectedNodeCount, expectedEdgeCount);
+    }
+
     /**
      * Returns the {@link Region.Node} at the given {@link Location}.
      * @param location The {@link Location} of the returned {@link Region.Node}.
@@ -64,6 +85,16 @@ public interface Region {
      */
     DistanceCalculator getDistanceCalculator();
 
+    /**
+     * Returns a {@link SpatialIndex} of the {@link Region.Node}s in this {@link Region} for nearest node and range queries.
+     * The default implementation builds a new index on every call, regions built by a {@link Region.Builder} return
+     * the index created when they were built.
+     * @return A {@link SpatialIndex} of the {@link Region.Node}s in this {@link Region}.
+     */
+    default SpatialIndex getSpatialIndex() {
+        return SpatialIndex.of(this);
+    }
+
     /**
      * Represents a component of the underlying graph.
      * @param <C> The type of the represented component.
@@ -102,13 +133,13 @@ public interface Region {
         @Nullable Edge getEdge(Node other);
 
         /**
-         * Returns all {@link Node}s adjacent to this {@link Node}.
+         * Returns all {@link Node}s adjacent to this {@link Node}. The returned set is unmodifiable.
          * @return All {@link Node}s adjacent to this {@link Node}.
          */
         Set<Node> getAdjacentNodes();
 
         /**
-         * Returns all {@link Edge}s that are connected with this {@link Node}.
+         * Returns all {@link Edge}s that are connected with this {@link Node}. The returned set is unmodifiable.
          * @return All {@link Edge}s that are connected with this {@link Node}.
          */
         Set<Edge> getAdjacentEdges();
@@ -201,6 +232,18 @@ public interface Region {
          */
         Builder distanceCalculator(DistanceCalculator distanceCalculator);
 
+        /**
+         * Sets the function that calculates the duration of an {@link Edge} from its two {@link Location}s.<p>
+         *
+         * By default, the duration of an {@link Edge} is the distance between its {@link Location}s according to the
+         * {@link DistanceCalculator}, rounded up. The function is applied when the {@link Region} is built and must not
+         * return negative durations.
+         *
+         * @param durationFunction The new duration function or {@code null} to use the default duration.
+         * @return The current {@link Builder}.
+         */
+        Builder durationFunction(@Nullable ToLongBiFunction<Location, Location> durationFunction);
+
         /**
          * Adds a new {@link Node} to the constructed {@link Region}.
          * @param name The name of the new {@link Node}.
@@ -1,9 +1,12 @@
 package projekt.delivery.routing;
 
+import org.jetbrains.annotations.Nullable;
 import projekt.base.DistanceCalculator;
 import projekt.base.Location;
+import projekt.base.LocationPool;
 
 import java.util.*;
+import java.util.function.ToLongBiFunction;
 
 class RegionBuilderImpl implements Region.Builder {
     private final Map<Location, NodeBuilder> nodes = new HashMap<>();
@@ -11,7 +14,10 @@ class RegionBuilderImpl implements Region.Builder {
         Comparator.comparing(EdgeBuilder::getLocationA).thenComparing(EdgeBuilder::getLocationB)
     );
     private final Set<String> allNames = new HashSet<>();
+    // all nodes and edges of the region share the same location instances
+    private final LocationPool locations = new LocationPool();
     private DistanceCalculator distanceCalc;
+    private @Nullable ToLongBiFunction<Location, Location> durationFunction;
 
     private void addName(String name) {
         if (!allNames.add(name)) {
@@ -25,9 +31,16 @@ class RegionBuilderImpl implements Region.Builder {
         return this;
     }
 
+    @Override
+    public Region.Builder durationFunction(@Nullable ToLongBiFunction<Location, Location> durationFunction) {
+        this.durationFunction = durationFunction;
+        return this;
+    }
+
     @Override
     public Region.Builder addNode(String name, Location location) {
         addName(name);
+        location = locations.intern(location);
         if (nodes.putIfAbsent(location, new NodeBuilder(name, location)) != null) {
             allNames.remove(name);
             throw new IllegalArgumentException("Duplicate node at location " + location);
@@ -51,6 +64,7 @@ class RegionBuilderImpl implements Region.Builder {
     @Override
     public Region.Builder addNeighborhood(String name, Location location) {
         addName(name);
+        location = locations.intern(location);
         if (nodes.putIfAbsent(location, new NeighborhoodBuilder(name, location)) != null) {
             allNames.remove(name);
             throw new IllegalArgumentException("Duplicate node at location " + location);
@@ -61,6 +75,7 @@ class RegionBuilderImpl implements Region.Builder {
     @Override
     public Region.Builder addRestaurant(String name, Location location, List<String> availableFood) {
         addName(name);
+        location = locations.intern(location);
 
         if (nodes.putIfAbsent(location, new RestaurantBuilder(name, location, availableFood)) != null) {
             allNames.remove(name);
@@ -99,8 +114,10 @@ class RegionBuilderImpl implements Region.Builder {
             return false;
         }
 
-        return edges.stream().noneMatch(edgeBuilder -> edgeBuilder.getLocationA().equals(locationA)
-            && edgeBuilder.getLocationB().equals(locationB));
+        // the edges are sorted by their locations, so the name of the probe does not matter
+        return locationA.compareTo(locationB) < 0
+            ? !edges.contains(new EdgeBuilder(name, locationA, locationB))
+            : !edges.contains(new EdgeBuilder(name, locationB, locationA));
     }
 
     @Override
@@ -111,17 +128,18 @@ class RegionBuilderImpl implements Region.Builder {
 
         allNames.remove(name);
 
-        for (NodeBuilder nodeBuilder : nodes.values()) {
-            if (nodeBuilder.name.equals(name)) {
-                nodes.remove(nodes.keySet().stream().filter(key -> nodes.get(key).equals(nodeBuilder)).findFirst()
-                    .orElseThrow());
+        Iterator<NodeBuilder> nodeIterator = nodes.values().iterator();
+        while (nodeIterator.hasNext()) {
+            if (nodeIterator.next().name.equals(name)) {
+                nodeIterator.remove();
                 return this;
             }
         }
 
-        for (EdgeBuilder edgeBuilder : edges) {
-            if (edgeBuilder.name.equals(name)) {
-                edges.remove(edgeBuilder);
+        Iterator<EdgeBuilder> edgeIterator = edges.iterator();
+        while (edgeIterator.hasNext()) {
+            if (edgeIterator.next().name.equals(name)) {
+                edgeIterator.remove();
                 return this;
             }
         }
@@ -145,13 +163,32 @@ class RegionBuilderImpl implements Region.Builder {
 
             nodes.get(e.locationA).connections.add(e.locationB);
             nodes.get(e.locationB).connections.add(e.locationA);
-            region.putEdge(e.build(region, distanceCalc));
+            region.putEdge(e.build(region, duration(e.locationA, e.locationB, distanceCalc, durationFunction)));
         });
+        region.freeze();
         return region;
     }
 
+    /**
+     * Calculates the duration of an edge between the given locations with the given duration function or, if there is
+     * none, as the distance between them rounded up.
+     */
+    static long duration(Location locationA, Location locationB, DistanceCalculator distanceCalculator,
+                         @Nullable ToLongBiFunction<Location, Location> durationFunction) {
+        if (durationFunction == null) {
+            return (long) Math.ceil(distanceCalculator.calculateDistance(locationA, locationB));
+        }
+        long duration = durationFunction.applyAsLong(locationA, locationB);
+        if (duration < 0) {
+            throw new IllegalArgumentException("Negative duration %d of edge connecting %s to %s".formatted(duration, locationA, locationB));
+        }
+        return duration;
+    }
+
     private void addSortedEdge(String name, Location locationA, Location locationB) {
         addName(name);
+        locationA = locations.intern(locationA);
+        locationB = locations.intern(locationB);
         if (!edges.add(new EdgeBuilder(name, locationA, locationB))) {
             allNames.remove(name);
             throw new IllegalArgumentException("Duplicate edge connecting %s to %s".formatted(locationA, locationB));
@@ -216,9 +253,7 @@ class RegionBuilderImpl implements Region.Builder {
             this.locationB = locationB;
         }
 
-        EdgeImpl build(Region region, DistanceCalculator distanceCalculator) {
-            double distance = distanceCalculator.calculateDistance(locationA, locationB);
-            long duration = (long) Math.ceil(distance);
+        EdgeImpl build(Region region, long duration) {
             return new EdgeImpl(region, name, locationA, locationB, duration);
         }
 
@@ -11,10 +11,18 @@ import static org.tudalgo.algoutils.student.Student.crash;
 
 class RegionImpl implements Region {
 
-    private final Map<Location, NodeImpl> nodes = new HashMap<>();
-    private final Map<Location, Map<Location, EdgeImpl>> edges = new HashMap<>();
-    private final List<EdgeImpl> allEdges = new ArrayList<>();
+    private final Map<Location, NodeImpl> nodes;
+    private final Map<Location, Map<Location, EdgeImpl>> edges;
+    private final List<EdgeImpl> allEdges;
     private final DistanceCalculator distanceCalculator;
+    private boolean frozen;
+    private @Nullable SpatialIndex spatialIndex;
+
+    /**
+     * The cached result of {@link #hashCode()} and a 64-bit hash of all nodes and edges, only valid while frozen.
+     */
+    private int hash;
+    private long fingerprint;
 
     /**
      * Creates a new, empty {@link RegionImpl} instance using a {@link EuclideanDistanceCalculator}.
@@ -27,7 +35,19 @@ class RegionImpl implements Region {
      * Creates a new, empty {@link RegionImpl} instance using the given {@link DistanceCalculator}.
      */
     public RegionImpl(DistanceCalculator distanceCalculator) {
+        this(distanceCalculator, 16, 16);
+    }
+
+    /**
+     * Creates a new, empty {@link RegionImpl} instance using the given {@link DistanceCalculator} whose maps are sized
+     * for the given number of components.
+     */
+    RegionImpl(DistanceCalculator distanceCalculator, int expectedNodeCount, int expectedEdgeCount) {
         this.distanceCalculator = distanceCalculator;
+        int capacity = (int) Math.min(1 << 30, expectedNodeCount * 4L / 3 + 1);
+        nodes = new HashMap<>(capacity);
+        edges = new HashMap<>(capacity);
+        allEdges = new ArrayList<>(expectedEdgeCount);
     }
 
     /**
@@ -50,36 +70,13 @@ class RegionImpl implements Region {
      */
     @Override
     public @Nullable Edge getEdge(Location locationA, Location locationB) {
-        Map<Location,EdgeImpl> tmpEdge = locationA.compareTo(locationB) <= 0? edges.get(locationA):edges.get(locationB);
-        return tmpEdge == null? null : (locationA.compareTo(locationB)) <= 0? tmpEdge.get(locationB):tmpEdge.get(locationA);
-
-        /*NodeImpl nodeA = nodes.get(locationA);
-        NodeImpl nodeB = nodes.get(locationB);
-        if (nodeA == null || nodeB == null) {
-            return null;
-        }
-        if(edges.get(nodeA) == null
-                || edges.get(nodeA).get(nodeB) == null){
-            return null;
-        }
-
-        // Check if edge exists between the two nodes without suspicious calls
-        Edge edge = edges.get(nodeA).get(nodeB);
-        if (edge == null) {
-            if(edges.get(nodeB) == null
-                    || edges.get(nodeB).get(nodeA) == null){
-                return null;
-            }
-            // Check if edge exists in reverse order
-            edge = edges.get(nodeB).get(nodeA);
-        }
-        return edge;
-         */
+        return locationA.compareTo(locationB) <= 0
+            ? getExistingEdge(locationA, locationB)
+            : getExistingEdge(locationB, locationA);
 
         //TODO: H2.3 - remove if implemented
-
-
     }
+
     private @Nullable EdgeImpl getExistingEdge(Location locationA, Location locationB) {
         Map<Location, EdgeImpl> edgesFromLocationA = edges.get(locationA);
         if (edgesFromLocationA != null) {
@@ -114,6 +111,12 @@ class RegionImpl implements Region {
         return distanceCalculator;
     }
 
+    @Override
+    public SpatialIndex getSpatialIndex() {
+        SpatialIndex spatialIndex = this.spatialIndex;
+        return spatialIndex != null ? spatialIndex : SpatialIndex.of(this);
+    }
+
     /**
      * @User Kristina Shigabutdinova
      * Adds the given {@link NodeImpl} to this {@link RegionImpl}.
@@ -127,6 +130,7 @@ class RegionImpl implements Region {
         }
         //else put node to Map nodes
         else{
+            unfreeze();
             nodes.put(node.getLocation(), node);
         }
         //TODO H2.2 - remove if implemented
@@ -153,32 +157,92 @@ class RegionImpl implements Region {
        } else if (edge.getNodeB() == null) {
            throw new IllegalArgumentException("NodeB " + edge.getLocationB().toString() + " is not part of the region");
        }else{
+           unfreeze();
            allEdges.add(edge);
-           Map<Location,EdgeImpl> insideLocation = Map.of(edge.getLocationA().compareTo(edge.getLocationB()) <= 0? edge.getLocationB() : edge.getLocationA(),edge);
-           edges.put(edge.getLocationA().compareTo(edge.getLocationB()) <= 0 ? edge.getLocationA() : edge.getLocationB(),insideLocation);
+           // EdgeImpl guarantees locationA <= locationB, every lower endpoint keeps one map of all its edges
+           edges.computeIfAbsent(edge.getLocationA(), location -> new HashMap<>(4)).put(edge.getLocationB(), edge);
        }
+//TODO H2.4 - remove if implemented
+    }
 
-           /*
-            if(!edge.getRegion().equals(this)){
-                throw new IllegalArgumentException("Edge "+edge.toString()+" has incorrect region");
-            }
-            if(edge.getNodeA() == null ){
-                throw new IllegalArgumentException("NodeA " + edge.getNodeA().getLocation().toString() + " is not part of the region");
-            }
-            if(edge.getNodeB() == null){
-                throw new IllegalArgumentException("NodeB " + edge.getNodeB().getLocation().toString() + " is not part of the region");
-            }
-            if(edge.getNodeA().getLocation().compareTo(edge.getNodeB().getLocation()) <= 0){
-                // Add edge to the Map of edges
-                edges.computeIfAbsent(edge.getNodeA().getLocation(), k -> new HashMap<>()).put(edge.getNodeB().getLocation(), edge);
+    /**
+     * Builds the adjacency index of all nodes, so {@link NodeImpl#getEdge(Node)}, {@link NodeImpl#getAdjacentNodes()}
+     * and {@link NodeImpl#getAdjacentEdges()} no longer scan all edges of the region, and the {@link SpatialIndex}
+     * returned by {@link #getSpatialIndex()}. All nodes and edges get their index in {@link #getNodes()} and
+     * {@link #getEdges()} as id, and the hash codes of the region and its nodes are cached.
+     * Everything is dropped again when a node or edge is added afterwards.
+     */
+    void freeze() {
+        NodeImpl[] nodeArray = nodes.values().toArray(NodeImpl[]::new);
+        Map<Location, Integer> ids = new HashMap<>(nodeArray.length * 4 / 3 + 1);
+        for (int i = 0; i < nodeArray.length; i++) {
+            ids.put(nodeArray[i].getLocation(), i);
+        }
 
+        int[] endpoints = new int[allEdges.size() * 2];
+        int[] degree = new int[nodeArray.length];
+        for (int edge = 0; edge < allEdges.size(); edge++) {
+            int a = ids.get(allEdges.get(edge).getLocationA());
+            int b = ids.get(allEdges.get(edge).getLocationB());
+            endpoints[2 * edge] = a;
+            endpoints[2 * edge + 1] = b;
+            degree[a]++;
+            if (a != b) {
+                degree[b]++;
             }
-            else{
-                edges.computeIfAbsent(edge.getNodeB().getLocation(), k -> new HashMap<>()).put(edge.getNodeA().getLocation(), edge);
+        }
+
+        EdgeImpl[][] incidentEdges = new EdgeImpl[nodeArray.length][];
+        Node[][] adjacentNodes = new Node[nodeArray.length][];
+        for (int i = 0; i < nodeArray.length; i++) {
+            incidentEdges[i] = new EdgeImpl[degree[i]];
+            adjacentNodes[i] = new Node[degree[i]];
+            degree[i] = 0;
+        }
+        for (int edge = 0; edge < allEdges.size(); edge++) {
+            int a = endpoints[2 * edge];
+            int b = endpoints[2 * edge + 1];
+            incidentEdges[a][degree[a]] = allEdges.get(edge);
+            adjacentNodes[a][degree[a]++] = nodeArray[b];
+            if (a != b) {
+                incidentEdges[b][degree[b]] = allEdges.get(edge);
+                adjacentNodes[b][degree[b]++] = nodeArray[a];
             }
-            allEdges.add(edge);
-            */
-//TODO H2.4 - remove if implemented
+        }
+        for (int i = 0; i < nodeArray.length; i++) {
+            nodeArray[i].freeze(i, incidentEdges[i], adjacentNodes[i]);
+        }
+        for (int edge = 0; edge < allEdges.size(); edge++) {
+            allEdges.get(edge).id = edge;
+        }
+
+        // the fingerprint sums the mixed hash codes of all components, so it does not depend on their order
+        long fingerprint = 0;
+        for (NodeImpl node : nodeArray) {
+            fingerprint += mix(node.hashCode());
+        }
+        for (EdgeImpl edge : allEdges) {
+            fingerprint += mix(~(long) edge.hashCode());
+        }
+        this.fingerprint = fingerprint;
+        hash = Objects.hash(nodes, edges);
+        spatialIndex = SpatialIndex.of(this);
+        frozen = true;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    private void unfreeze() {
+        if (frozen) {
+            nodes.values().forEach(NodeImpl::unfreeze);
+            allEdges.forEach(edge -> edge.id = -1);
+            spatialIndex = null;
+            frozen = false;
+        }
     }
 
     /**
@@ -195,6 +259,9 @@ class RegionImpl implements Region {
             return false;
         }
         RegionImpl other = (RegionImpl) o;
+        if (frozen && other.frozen && fingerprint != other.fingerprint) {
+            return false;
+        }
         return Objects.equals(this.nodes, other.nodes) && Objects.equals(this.edges, other.edges);
         //TODO H2.6 - remove if implemented
     }
@@ -205,6 +272,9 @@ class RegionImpl implements Region {
      */
     @Override
     public int hashCode() {
+        if (frozen) {
+            return hash;
+        }
         return Objects.hash(nodes, edges);
     }
     //TODO H2.7 - remove if implemented
@@ -0,0 +1,172 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Mutable edge durations on top of an immutable {@link Region}.<p>
+ *
+ * The overlay starts with the durations of the edges of the region and allows to change them, e.g. to model road
+ * closures or congestion during a simulation. The region itself is not modified. Path calculators that work on an
+ * overlay, like the {@link DynamicPathCalculator}, are notified about every change and update their results until
+ * they are closed.<p>
+ *
+ * All methods synchronize on the overlay, so it can be changed while other threads calculate paths on it.
+ */
+public final class RegionOverlay {
+
+    private final CompiledRegion graph;
+    private final long[] durations;
+    private final List<Listener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a new {@link RegionOverlay} that uses the durations of the edges of the given {@link Region}.
+     *
+     * @param region the {@link Region} to create the overlay for
+     */
+    public RegionOverlay(Region region) {
+        graph = CompiledRegion.of(region);
+        durations = new long[graph.edgeCount()];
+        for (int edge = 0; edge < durations.length; edge++) {
+            durations[edge] = graph.edgeDuration(edge);
+        }
+    }
+
+    /**
+     * Returns the {@link Region} of this overlay.
+     *
+     * @return the {@link Region} of this overlay
+     */
+    public Region getRegion() {
+        return graph.getRegion();
+    }
+
+    /**
+     * Returns the current duration of the given {@link Region.Edge}.
+     *
+     * @param edge the {@link Region.Edge} to return the duration of
+     * @return the current duration of {@code edge}
+     * @throws IllegalArgumentException if {@code edge} is not part of the region
+     */
+    public synchronized long getDuration(Region.Edge edge) {
+        return durations[graph.requireEdgeId(edge)];
+    }
+
+    /**
+     * Changes the duration of the given {@link Region.Edge}.
+     *
+     * @param edge     the {@link Region.Edge} to change
+     * @param duration the new duration of {@code edge}
+     * @throws IllegalArgumentException if {@code edge} is not part of the region or {@code duration} is negative
+     */
+    public synchronized void setDuration(Region.Edge edge, long duration) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration must not be negative");
+        }
+        int id = graph.requireEdgeId(edge);
+        long oldDuration = durations[id];
+        if (oldDuration == duration) {
+            return;
+        }
+        durations[id] = duration;
+        for (Listener listener : listeners) {
+            listener.onDurationChanged(id, oldDuration, duration);
+        }
+    }
+
+    /**
+     * Applies a new duration profile to all edges, e.g. the durations during the rush hour.
+     * Listeners are only notified about edges whose duration actually changes.
+     *
+     * @param profile the function that returns the new duration of every edge
+     * @throws IllegalArgumentException if {@code profile} returns a negative duration
+     */
+    public synchronized void setDurations(ToLongFunction<Region.Edge> profile) {
+        for (int edge = 0; edge < durations.length; edge++) {
+            setDuration(graph.edge(edge), profile.applyAsLong(graph.edge(edge)));
+        }
+    }
+
+    /**
+     * Restores the duration of the given {@link Region.Edge} to its duration in the region.
+     *
+     * @param edge the {@link Region.Edge} to restore
+     * @throws IllegalArgumentException if {@code edge} is not part of the region
+     */
+    public synchronized void resetDuration(Region.Edge edge) {
+        setDuration(edge, edge.getDuration());
+    }
+
+    /**
+     * Restores the durations of all edges to their durations in the region.
+     */
+    public synchronized void reset() {
+        for (int edge = 0; edge < durations.length; edge++) {
+            resetDuration(graph.edge(edge));
+        }
+    }
+
+    /**
+     * Returns the compiled region the edge ids of this overlay refer to.
+     *
+     * @return the compiled region
+     */
+    CompiledRegion graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the current duration of the given arc of {@link #graph()}. The caller must hold the lock of the overlay.
+     *
+     * @param arc the index of the arc
+     * @return the current duration of the edge of the arc
+     */
+    long arcDuration(int arc) {
+        return durations[graph.arcEdge(arc)];
+    }
+
+    /**
+     * Registers a listener that is called whenever the duration of an edge changes. Listeners are called while the
+     * lock of the overlay is held.
+     *
+     * @param listener the listener to add
+     */
+    synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was registered with {@link #addListener(Listener)}, so it is no longer called and can be
+     * garbage collected. Does nothing if the listener is not registered.
+     *
+     * @param listener the listener to remove
+     */
+    synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns whether any listener is registered.
+     *
+     * @return {@code true} if at least one listener is registered
+     */
+    synchronized boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * A listener for changes of the durations of a {@link RegionOverlay}.
+     */
+    interface Listener {
+
+        /**
+         * Called after the duration of an edge changed.
+         *
+         * @param edge        the id of the changed edge in {@link #graph()}
+         * @param oldDuration the previous duration of the edge
+         * @param newDuration the new duration of the edge
+         */
+        void onDurationChanged(int edge, long oldDuration, long newDuration);
+    }
+}
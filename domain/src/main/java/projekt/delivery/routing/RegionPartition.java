@@ -0,0 +1,562 @@
+package projekt.delivery.routing;
+
+import projekt.base.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable partition of the nodes of a {@link Region} into balanced cells with few edges between them.<p>
+ *
+ * The region is split by recursive bisection until every cell contains at most a given number of nodes. Every
+ * bisection follows the inertial flow approach: the nodes are projected onto several directions, for every direction the
+ * first and the last quarter of the nodes are connected to a source and a sink and a minimum cut between them is
+ * computed with unit edge capacities. The cut with the fewest edges is used, so regions made of several cities that
+ * are joined by a few highways are split along the highways. Both sides of a bisection contain at least a quarter of
+ * the split nodes.<p>
+ *
+ * Cells are numbered in the order of the bisection, so cells that result from splitting the same part of the region
+ * have consecutive numbers. Nodes and edges are referred to by their ids in the {@link CompiledRegion} of the partition.
+ * The partition can be used to build overlay graphs over the boundary nodes of the cells, to process parts of the
+ * region independently or to skip cells outside a visible area, see {@link #minX(int)}.
+ */
+public final class RegionPartition {
+
+    /**
+     * The directions the nodes are projected onto: horizontal, vertical and both diagonals.
+     */
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    private final CompiledRegion graph;
+    private final int[] cells;
+    private final int[] firstCellNode;
+    private final int[] cellNodes;
+    private final int[] minXs;
+    private final int[] minYs;
+    private final int[] maxXs;
+    private final int[] maxYs;
+    private final boolean[] boundaryNodes;
+    private final int[] cutEdges;
+
+    private RegionPartition(CompiledRegion graph, int maxCellSize) {
+        this.graph = graph;
+        int nodeCount = graph.nodeCount();
+        cellNodes = new int[nodeCount];
+        Arrays.setAll(cellNodes, id -> id);
+        List<Integer> cellEnds = new ArrayList<>();
+        new Bisection(graph, cellNodes).split(0, nodeCount, maxCellSize, cellEnds);
+
+        int cellCount = cellEnds.size();
+        firstCellNode = new int[cellCount + 1];
+        cells = new int[nodeCount];
+        minXs = new int[cellCount];
+        minYs = new int[cellCount];
+        maxXs = new int[cellCount];
+        maxYs = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            firstCellNode[cell + 1] = cellEnds.get(cell);
+            minXs[cell] = minYs[cell] = Integer.MAX_VALUE;
+            maxXs[cell] = maxYs[cell] = Integer.MIN_VALUE;
+            for (int i = firstCellNode[cell]; i < firstCellNode[cell + 1]; i++) {
+                int node = cellNodes[i];
+                cells[node] = cell;
+                minXs[cell] = Math.min(minXs[cell], graph.x(node));
+                minYs[cell] = Math.min(minYs[cell], graph.y(node));
+                maxXs[cell] = Math.max(maxXs[cell], graph.x(node));
+                maxYs[cell] = Math.max(maxYs[cell], graph.y(node));
+            }
+        }
+
+        boundaryNodes = new boolean[nodeCount];
+        int[] cut = new int[graph.edgeCount()];
+        int cutCount = 0;
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            int a = graph.edgeNodeA(edge);
+            int b = graph.edgeNodeB(edge);
+            if (cells[a] != cells[b]) {
+                cut[cutCount++] = edge;
+                boundaryNodes[a] = true;
+                boundaryNodes[b] = true;
+            }
+        }
+        cutEdges = Arrays.copyOf(cut, cutCount);
+    }
+
+    /**
+     * Partitions the given {@link Region} into cells with at most {@code maxCellSize} nodes.
+     *
+     * @param region      the {@link Region} to partition
+     * @param maxCellSize the maximum number of nodes in a cell
+     * @return the partition of {@code region}
+     * @throws IllegalArgumentException if {@code maxCellSize} is not positive
+     */
+    public static RegionPartition of(Region region, int maxCellSize) {
+        return of(CompiledRegion.of(region), maxCellSize);
+    }
+
+    /**
+     * Partitions the given {@link CompiledRegion} into cells with at most {@code maxCellSize} nodes.
+     *
+     * @param graph       the {@link CompiledRegion} to partition
+     * @param maxCellSize the maximum number of nodes in a cell
+     * @return the partition of {@code graph}
+     * @throws IllegalArgumentException if {@code maxCellSize} is not positive
+     */
+    public static RegionPartition of(CompiledRegion graph, int maxCellSize) {
+        if (maxCellSize < 1) {
+            throw new IllegalArgumentException("maxCellSize must be positive");
+        }
+        return new RegionPartition(graph, maxCellSize);
+    }
+
+    /**
+     * Returns the {@link CompiledRegion} whose node and edge ids are used by this partition.
+     *
+     * @return the partitioned {@link CompiledRegion}
+     */
+    public CompiledRegion getCompiledRegion() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of cells.
+     *
+     * @return the number of cells
+     */
+    public int cellCount() {
+        return firstCellNode.length - 1;
+    }
+
+    /**
+     * Returns the cell of the node with the given id.
+     *
+     * @param id the id of the node
+     * @return the cell of the node
+     */
+    public int cellOf(int id) {
+        return cells[id];
+    }
+
+    /**
+     * Returns the cell of the given {@link Region.Node}.
+     *
+     * @param node the {@link Region.Node} to look up
+     * @return the cell of {@code node}
+     * @throws IllegalArgumentException if {@code node} is not part of the region
+     */
+    public int cellOf(Region.Node node) {
+        return cells[graph.requireId(node)];
+    }
+
+    /**
+     * Returns the cell of the node at the given {@link Location}.
+     *
+     * @param location the {@link Location} to look up
+     * @return the cell of the node at {@code location} or {@code -1} if there is no such node
+     */
+    public int cellOf(Location location) {
+        int id = graph.idOf(location);
+        return id < 0 ? -1 : cells[id];
+    }
+
+    /**
+     * Returns the cell of the given {@link Region.Edge}, which is the cell of its first node
+     * ({@link Region.Edge#getNodeA()}). Use {@link #isCutEdge(int)} to check whether the edge leaves its cell.
+     *
+     * @param edge the {@link Region.Edge} to look up
+     * @return the cell of {@code edge}
+     * @throws IllegalArgumentException if {@code edge} is not part of the region
+     */
+    public int cellOf(Region.Edge edge) {
+        return cells[graph.edgeNodeA(graph.requireEdgeId(edge))];
+    }
+
+    /**
+     * Returns the number of nodes in the given cell.
+     *
+     * @param cell the cell
+     * @return the number of nodes in {@code cell}
+     */
+    public int cellSize(int cell) {
+        return firstCellNode[cell + 1] - firstCellNode[cell];
+    }
+
+    /**
+     * Returns the ids of the nodes in the given cell.
+     *
+     * @param cell the cell
+     * @return a new array with the ids of the nodes in {@code cell}
+     */
+    public int[] nodesOf(int cell) {
+        return Arrays.copyOfRange(cellNodes, firstCellNode[cell], firstCellNode[cell + 1]);
+    }
+
+    /**
+     * Returns the {@link Region.Node}s in the given cell.
+     *
+     * @param cell the cell
+     * @return the {@link Region.Node}s in {@code cell}
+     */
+    public List<Region.Node> getNodes(int cell) {
+        List<Region.Node> nodes = new ArrayList<>(cellSize(cell));
+        for (int i = firstCellNode[cell]; i < firstCellNode[cell + 1]; i++) {
+            nodes.add(graph.node(cellNodes[i]));
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns whether the node with the given id has an edge to a node in another cell.
+     *
+     * @param id the id of the node
+     * @return {@code true} if the node is on the boundary of its cell
+     */
+    public boolean isBoundaryNode(int id) {
+        return boundaryNodes[id];
+    }
+
+    /**
+     * Returns the ids of the nodes in the given cell that have an edge to a node in another cell.
+     *
+     * @param cell the cell
+     * @return a new array with the ids of the boundary nodes of {@code cell}
+     */
+    public int[] boundaryNodesOf(int cell) {
+        return Arrays.stream(cellNodes, firstCellNode[cell], firstCellNode[cell + 1])
+            .filter(id -> boundaryNodes[id])
+            .toArray();
+    }
+
+    /**
+     * Returns whether the edge with the given id connects two different cells.
+     *
+     * @param id the id of the edge
+     * @return {@code true} if the edge is cut by the partition
+     */
+    public boolean isCutEdge(int id) {
+        return cells[graph.edgeNodeA(id)] != cells[graph.edgeNodeB(id)];
+    }
+
+    /**
+     * Returns the ids of all edges that connect two different cells.
+     *
+     * @return a new array with the ids of the cut edges
+     */
+    public int[] cutEdges() {
+        return cutEdges.clone();
+    }
+
+    /**
+     * Returns the smallest x-coordinate of the nodes in the given cell.
+     * Together with {@link #minY(int)}, {@link #maxX(int)} and {@link #maxY(int)} it forms the bounding box of the cell.
+     *
+     * @param cell the cell
+     * @return the smallest x-coordinate in {@code cell}
+     */
+    public int minX(int cell) {
+        return minXs[cell];
+    }
+
+    /**
+     * Returns the smallest y-coordinate of the nodes in the given cell.
+     *
+     * @param cell the cell
+     * @return the smallest y-coordinate in {@code cell}
+     */
+    public int minY(int cell) {
+        return minYs[cell];
+    }
+
+    /**
+     * Returns the largest x-coordinate of the nodes in the given cell.
+     *
+     * @param cell the cell
+     * @return the largest x-coordinate in {@code cell}
+     */
+    public int maxX(int cell) {
+        return maxXs[cell];
+    }
+
+    /**
+     * Returns the largest y-coordinate of the nodes in the given cell.
+     *
+     * @param cell the cell
+     * @return the largest y-coordinate in {@code cell}
+     */
+    public int maxY(int cell) {
+        return maxYs[cell];
+    }
+
+    /**
+     * The recursive bisection of the nodes. Every part of the region is a range of {@link #order}, which is rearranged
+     * so that both sides of a bisection are consecutive ranges again.
+     */
+    private static final class Bisection {
+
+        private static final byte SOURCE = 1;
+        private static final byte SINK = 2;
+
+        private final CompiledRegion graph;
+        private final int[] order;
+
+        /**
+         * The nodes of the currently split part are marked with the current generation.
+         */
+        private final int[] generations;
+        private int generation;
+
+        private final byte[] roles;
+        private final byte[] flows;
+        private final int[] levels;
+        private final int[] currentArcs;
+        private final boolean[] sourceSide;
+        private final int[] queue;
+        private final int[] pathNodes;
+        private final int[] pathArcs;
+        private final long[] projections;
+        private final int[] buffer;
+
+        Bisection(CompiledRegion graph, int[] order) {
+            this.graph = graph;
+            this.order = order;
+            int nodeCount = graph.nodeCount();
+            generations = new int[nodeCount];
+            roles = new byte[nodeCount];
+            flows = new byte[graph.edgeCount()];
+            levels = new int[nodeCount];
+            currentArcs = new int[nodeCount];
+            sourceSide = new boolean[nodeCount];
+            queue = new int[nodeCount];
+            pathNodes = new int[nodeCount + 1];
+            pathArcs = new int[nodeCount];
+            projections = new long[nodeCount];
+            buffer = new int[nodeCount];
+        }
+
+        /**
+         * Splits the nodes in {@code [from, to)} until all parts have at most {@code maxCellSize} nodes and adds the
+         * exclusive end of every part to {@code cellEnds}.
+         */
+        void split(int from, int to, int maxCellSize, List<Integer> cellEnds) {
+            if (to - from <= maxCellSize) {
+                if (to > from) {
+                    cellEnds.add(to);
+                }
+                return;
+            }
+            int middle = bisect(from, to);
+            split(from, middle, maxCellSize, cellEnds);
+            split(middle, to, maxCellSize, cellEnds);
+        }
+
+        /**
+         * Rearranges the nodes in {@code [from, to)} so that the source side of the best cut comes first.
+         *
+         * @return the start of the sink side
+         */
+        private int bisect(int from, int to) {
+            generation++;
+            for (int i = from; i < to; i++) {
+                generations[order[i]] = generation;
+            }
+            int size = to - from;
+            int terminals = Math.max(1, size / 4);
+            int bestCut = Integer.MAX_VALUE;
+            int bestImbalance = Integer.MAX_VALUE;
+            for (int[] direction : DIRECTIONS) {
+                assignTerminals(from, to, direction, terminals);
+                int cut = maxFlow(from, to);
+                int sourceCount = 0;
+                for (int i = from; i < to; i++) {
+                    if (levels[order[i]] >= 0) {
+                        sourceCount++;
+                    }
+                }
+                int imbalance = Math.abs(2 * sourceCount - size);
+                if (cut < bestCut || cut == bestCut && imbalance < bestImbalance) {
+                    bestCut = cut;
+                    bestImbalance = imbalance;
+                    for (int i = from; i < to; i++) {
+                        sourceSide[order[i]] = levels[order[i]] >= 0;
+                    }
+                }
+            }
+
+            int sources = from;
+            int sinks = 0;
+            for (int i = from; i < to; i++) {
+                if (sourceSide[order[i]]) {
+                    order[sources++] = order[i];
+                } else {
+                    buffer[sinks++] = order[i];
+                }
+            }
+            System.arraycopy(buffer, 0, order, sources, sinks);
+            return sources;
+        }
+
+        /**
+         * Marks the {@code terminals} nodes with the smallest projection onto the given direction as sources and the
+         * {@code terminals} nodes with the largest projection as sinks.
+         */
+        private void assignTerminals(int from, int to, int[] direction, int terminals) {
+            int size = to - from;
+            for (int i = from; i < to; i++) {
+                int node = order[i];
+                projections[i - from] = projection(node, direction);
+                roles[node] = 0;
+            }
+            Arrays.sort(projections, 0, size);
+            long lowest = projections[terminals - 1];
+            long highest = projections[size - terminals];
+
+            // nodes strictly beyond the thresholds first, then nodes on the thresholds until there are enough
+            int sources = 0;
+            int sinks = 0;
+            for (int i = from; i < to; i++) {
+                int node = order[i];
+                long projection = projection(node, direction);
+                if (projection < lowest) {
+                    roles[node] = SOURCE;
+                    sources++;
+                } else if (projection > highest) {
+                    roles[node] = SINK;
+                    sinks++;
+                }
+            }
+            for (int i = from; i < to && sources < terminals; i++) {
+                int node = order[i];
+                if (roles[node] == 0 && projection(node, direction) == lowest) {
+                    roles[node] = SOURCE;
+                    sources++;
+                }
+            }
+            for (int i = from; i < to && sinks < terminals; i++) {
+                int node = order[i];
+                if (roles[node] == 0 && projection(node, direction) == highest) {
+                    roles[node] = SINK;
+                    sinks++;
+                }
+            }
+        }
+
+        private long projection(int node, int[] direction) {
+            return (long) direction[0] * graph.x(node) + (long) direction[1] * graph.y(node);
+        }
+
+        /**
+         * Computes a maximum flow from the sources to the sinks with Dinic's algorithm, every edge has capacity one in
+         * both directions. Afterwards exactly the nodes on the source side of a minimum cut have a non-negative level.
+         *
+         * @return the value of the flow, i.e. the number of cut edges
+         */
+        private int maxFlow(int from, int to) {
+            for (int i = from; i < to; i++) {
+                int node = order[i];
+                for (int arc = graph.firstArc(node); arc < graph.firstArc(node + 1); arc++) {
+                    flows[graph.arcEdge(arc)] = 0;
+                }
+            }
+            int flow = 0;
+            while (buildLevels(from, to)) {
+                for (int i = from; i < to; i++) {
+                    currentArcs[order[i]] = graph.firstArc(order[i]);
+                }
+                for (int i = from; i < to; i++) {
+                    if (roles[order[i]] == SOURCE) {
+                        while (augment(order[i])) {
+                            flow++;
+                        }
+                    }
+                }
+            }
+            return flow;
+        }
+
+        /**
+         * Assigns every node of the part its distance from the sources in the residual graph or {@code -1} if it is
+         * not reachable.
+         *
+         * @return whether a sink is reachable
+         */
+        private boolean buildLevels(int from, int to) {
+            int head = 0;
+            int tail = 0;
+            for (int i = from; i < to; i++) {
+                int node = order[i];
+                if (roles[node] == SOURCE) {
+                    levels[node] = 0;
+                    queue[tail++] = node;
+                } else {
+                    levels[node] = -1;
+                }
+            }
+            boolean reachedSink = false;
+            while (head < tail) {
+                int node = queue[head++];
+                if (roles[node] == SINK) {
+                    reachedSink = true;
+                    continue;
+                }
+                for (int arc = graph.firstArc(node); arc < graph.firstArc(node + 1); arc++) {
+                    int target = graph.arcTarget(arc);
+                    if (generations[target] == generation && levels[target] < 0 && hasCapacity(node, arc)) {
+                        levels[target] = levels[node] + 1;
+                        queue[tail++] = target;
+                    }
+                }
+            }
+            return reachedSink;
+        }
+
+        /**
+         * Searches a path along increasing levels from the given source to a sink and sends one unit of flow along it.
+         * Nodes that do not lead to a sink are removed from the level graph.
+         *
+         * @return whether a path was found
+         */
+        private boolean augment(int source) {
+            int depth = 0;
+            pathNodes[0] = source;
+            while (depth >= 0) {
+                int node = pathNodes[depth];
+                if (roles[node] == SINK) {
+                    for (int i = 0; i < depth; i++) {
+                        int edge = graph.arcEdge(pathArcs[i]);
+                        flows[edge] += graph.edgeNodeA(edge) == pathNodes[i] ? 1 : -1;
+                    }
+                    return true;
+                }
+                boolean advanced = false;
+                for (int end = graph.firstArc(node + 1); currentArcs[node] < end; currentArcs[node]++) {
+                    int arc = currentArcs[node];
+                    int target = graph.arcTarget(arc);
+                    if (generations[target] == generation && levels[target] == levels[node] + 1
+                        && hasCapacity(node, arc)) {
+                        pathArcs[depth] = arc;
+                        pathNodes[++depth] = target;
+                        advanced = true;
+                        break;
+                    }
+                }
+                if (!advanced) {
+                    // dead end, the level of sources is kept so they still belong to the source side
+                    if (roles[node] != SOURCE) {
+                        levels[node] = Integer.MIN_VALUE;
+                    }
+                    depth--;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasCapacity(int node, int arc) {
+            int edge = graph.arcEdge(arc);
+            if (graph.edgeNodeA(edge) == graph.edgeNodeB(edge)) {
+                return false;
+            }
+            return graph.edgeNodeA(edge) == node ? flows[edge] < 1 : flows[edge] > -1;
+        }
+    }
+}
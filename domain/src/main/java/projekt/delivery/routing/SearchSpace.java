@@ -0,0 +1,156 @@
+package projekt.delivery.routing;
+
+import java.util.Arrays;
+
+/**
+ * The mutable state of a single shortest path search on a {@link CompiledRegion}.<p>
+ *
+ * It stores the tentative duration and the predecessor of every node as well as the priority queue of the search.
+ * Every label is stamped with the epoch of the search that wrote it and labels of older epochs count as unreached, so
+ * {@link #reset()} only starts a new epoch instead of clearing all labels. A search that stops early does not pay for
+ * the size of the whole region, which makes it worthwhile to keep one search space per thread and reuse it.
+ */
+final class SearchSpace {
+
+    /**
+     * The duration of nodes that have not been reached yet.
+     */
+    static final long INFINITY = Long.MAX_VALUE;
+
+    private final long[] durations;
+    private final int[] predecessors;
+    private final int[] stamps;
+    private int epoch = 1;
+    private final int[] touched;
+    private int touchedCount;
+    private final IndexedHeap queue;
+
+    /**
+     * Creates a new {@link SearchSpace} for a {@link CompiledRegion} with the given number of nodes.
+     *
+     * @param nodeCount the number of nodes
+     */
+    SearchSpace(int nodeCount) {
+        durations = new long[nodeCount];
+        predecessors = new int[nodeCount];
+        stamps = new int[nodeCount];
+        touched = new int[nodeCount];
+        queue = new IndexedHeap(nodeCount);
+    }
+
+    /**
+     * Returns the number of nodes this search space was created for.
+     *
+     * @return the number of nodes
+     */
+    int nodeCount() {
+        return durations.length;
+    }
+
+    /**
+     * Returns the tentative duration of the given node or {@link #INFINITY} if it has not been reached.
+     *
+     * @param node the id of the node
+     * @return the tentative duration of the node
+     */
+    long duration(int node) {
+        return stamps[node] == epoch ? durations[node] : INFINITY;
+    }
+
+    /**
+     * Returns the predecessor of the given node or {@code -1} if it has none.
+     *
+     * @param node the id of the node
+     * @return the id of the predecessor of the node
+     */
+    int predecessor(int node) {
+        return stamps[node] == epoch ? predecessors[node] : -1;
+    }
+
+    /**
+     * Returns the priority queue of this search.
+     *
+     * @return the priority queue
+     */
+    IndexedHeap queue() {
+        return queue;
+    }
+
+    /**
+     * Returns the number of nodes that were reached since the last reset.
+     *
+     * @return the number of reached nodes
+     */
+    int reachedCount() {
+        return touchedCount;
+    }
+
+    /**
+     * Returns the id of the {@code index}-th node that was reached since the last reset.
+     *
+     * @param index the index of the node, in {@code [0, reachedCount())}
+     * @return the id of the node
+     */
+    int reached(int index) {
+        return touched[index];
+    }
+
+    /**
+     * Updates the label of the given node if {@code duration} is smaller than its current tentative duration.
+     *
+     * @param node        the id of the node
+     * @param duration    the new duration
+     * @param predecessor the id of the new predecessor
+     * @return {@code true} if the label was updated
+     */
+    boolean relax(int node, long duration, int predecessor) {
+        if (stamps[node] != epoch) {
+            stamps[node] = epoch;
+            touched[touchedCount++] = node;
+        } else if (duration >= durations[node]) {
+            return false;
+        }
+        durations[node] = duration;
+        predecessors[node] = predecessor;
+        return true;
+    }
+
+    /**
+     * Resets this search space and executes Dijkstra's algorithm starting at {@code source}, settling every node that
+     * is reachable from it. Afterwards, the predecessor of every reached node is the next node on its shortest path
+     * to {@code source}.
+     *
+     * @param graph  the compiled region to search
+     * @param source the id of the node to start at
+     */
+    void searchFrom(CompiledRegion graph, int source) {
+        reset();
+        relax(source, 0, -1);
+        queue.insertOrDecrease(source, 0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            long durationU = durations[u];
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                long duration = durationU + graph.arcDuration(arc);
+                if (relax(v, duration, u)) {
+                    queue.insertOrDecrease(v, duration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resets all labels and the queue to their initial state. Only the queue has to be cleared, the labels are
+     * invalidated by starting a new epoch.
+     */
+    void reset() {
+        if (++epoch == 0) {
+            // all stamps could belong to the new epoch after an overflow
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+        touchedCount = 0;
+        queue.clear();
+    }
+}
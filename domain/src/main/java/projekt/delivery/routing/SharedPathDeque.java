@@ -0,0 +1,427 @@
+package projekt.delivery.routing;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A copy-on-write {@link Deque} view of a path that is shared between several callers, e.g. by a cache.<p>
+ *
+ * The view reads nodes from a structure that is never modified. Removing nodes from the front only advances the view,
+ * so a vehicle can consume the path without copying it. The first operation the shared structure cannot answer, like
+ * inserting nodes or removing them from the middle, copies the remaining nodes into a private {@link ArrayDeque} and
+ * forwards all further operations to it. This includes removing a node through an iterator.
+ */
+abstract class SharedPathDeque extends AbstractCollection<Region.Node> implements Deque<Region.Node> {
+
+    private Deque<Region.Node> copy;
+
+    /**
+     * Creates a new {@link SharedPathDeque} that contains all nodes of the given array.
+     *
+     * @param nodes the shared nodes, which must not be modified afterwards
+     * @return the view of the array
+     */
+    static SharedPathDeque of(Region.Node[] nodes) {
+        return new ArrayView(nodes);
+    }
+
+    /**
+     * Returns the number of remaining nodes of the shared view.
+     *
+     * @return the number of nodes
+     */
+    abstract int sharedSize();
+
+    /**
+     * Returns the first remaining node of the shared view, which is not empty.
+     *
+     * @return the first node
+     */
+    abstract Region.Node sharedFirst();
+
+    /**
+     * Returns the last remaining node of the shared view, which is not empty.
+     *
+     * @return the last node
+     */
+    abstract Region.Node sharedLast();
+
+    /**
+     * Removes the first remaining node from the shared view, which is not empty.
+     */
+    abstract void sharedRemoveFirst();
+
+    /**
+     * Removes and returns the last remaining node of the shared view, which is not empty. Views that cannot do this
+     * without a copy may return {@code copy().pollLast()}.
+     *
+     * @return the removed node
+     */
+    abstract Region.Node sharedPollLast();
+
+    /**
+     * Removes all remaining nodes from the shared view.
+     */
+    abstract void sharedClear();
+
+    /**
+     * Returns a read-only iterator over the remaining nodes of the shared view.
+     *
+     * @return the iterator
+     */
+    abstract Iterator<Region.Node> sharedIterator();
+
+    /**
+     * Returns the private copy of the remaining nodes and creates it if necessary.
+     *
+     * @return the private copy
+     */
+    final Deque<Region.Node> copy() {
+        if (copy == null) {
+            Deque<Region.Node> copy = new ArrayDeque<>(Math.max(sharedSize(), 1));
+            sharedIterator().forEachRemaining(copy::addLast);
+            this.copy = copy;
+        }
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return copy != null ? copy.size() : sharedSize();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (copy != null) {
+            return copy.contains(o);
+        }
+        for (Iterator<Region.Node> iterator = sharedIterator(); iterator.hasNext(); ) {
+            if (iterator.next().equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void addFirst(Region.Node node) {
+        copy().addFirst(node);
+    }
+
+    @Override
+    public void addLast(Region.Node node) {
+        copy().addLast(node);
+    }
+
+    @Override
+    public boolean offerFirst(Region.Node node) {
+        return copy().offerFirst(node);
+    }
+
+    @Override
+    public boolean offerLast(Region.Node node) {
+        return copy().offerLast(node);
+    }
+
+    @Override
+    public Region.Node removeFirst() {
+        Region.Node node = pollFirst();
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node;
+    }
+
+    @Override
+    public Region.Node removeLast() {
+        Region.Node node = pollLast();
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node;
+    }
+
+    @Override
+    public Region.Node pollFirst() {
+        if (copy != null) {
+            return copy.pollFirst();
+        }
+        if (sharedSize() == 0) {
+            return null;
+        }
+        Region.Node node = sharedFirst();
+        sharedRemoveFirst();
+        return node;
+    }
+
+    @Override
+    public Region.Node pollLast() {
+        if (copy != null) {
+            return copy.pollLast();
+        }
+        return sharedSize() == 0 ? null : sharedPollLast();
+    }
+
+    @Override
+    public Region.Node getFirst() {
+        Region.Node node = peekFirst();
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node;
+    }
+
+    @Override
+    public Region.Node getLast() {
+        Region.Node node = peekLast();
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node;
+    }
+
+    @Override
+    public Region.Node peekFirst() {
+        if (copy != null) {
+            return copy.peekFirst();
+        }
+        return sharedSize() == 0 ? null : sharedFirst();
+    }
+
+    @Override
+    public Region.Node peekLast() {
+        if (copy != null) {
+            return copy.peekLast();
+        }
+        return sharedSize() == 0 ? null : sharedLast();
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return copy().removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        return copy().removeLastOccurrence(o);
+    }
+
+    @Override
+    public boolean add(Region.Node node) {
+        addLast(node);
+        return true;
+    }
+
+    @Override
+    public boolean offer(Region.Node node) {
+        return offerLast(node);
+    }
+
+    @Override
+    public Region.Node remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public Region.Node poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public Region.Node element() {
+        return getFirst();
+    }
+
+    @Override
+    public Region.Node peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(Region.Node node) {
+        addFirst(node);
+    }
+
+    @Override
+    public Region.Node pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return copy().removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return copy().retainAll(c);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Region.Node> filter) {
+        return copy().removeIf(filter);
+    }
+
+    @Override
+    public void clear() {
+        if (copy != null) {
+            copy.clear();
+        } else {
+            sharedClear();
+        }
+    }
+
+    @Override
+    public Iterator<Region.Node> iterator() {
+        return copy != null ? copy.iterator() : new CopyOnRemoveIterator(sharedIterator(), false);
+    }
+
+    @Override
+    public Iterator<Region.Node> descendingIterator() {
+        if (copy != null) {
+            return copy.descendingIterator();
+        }
+        Region.Node[] nodes = toArray(Region.Node[]::new);
+        return new CopyOnRemoveIterator(new Iterator<>() {
+            private int next = nodes.length - 1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Region.Node next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                return nodes[next--];
+            }
+        }, true);
+    }
+
+    /**
+     * An iterator over the shared view that switches to an iterator over the private copy, positioned at the same
+     * node, when a node is removed.
+     */
+    private final class CopyOnRemoveIterator implements Iterator<Region.Node> {
+
+        private final boolean descending;
+        private Iterator<Region.Node> iterator;
+        private boolean copied;
+        private int returned;
+
+        CopyOnRemoveIterator(Iterator<Region.Node> iterator, boolean descending) {
+            this.iterator = iterator;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Region.Node next() {
+            Region.Node node = iterator.next();
+            returned++;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (!copied) {
+                if (returned == 0) {
+                    throw new IllegalStateException();
+                }
+                Iterator<Region.Node> copyIterator = descending ? copy().descendingIterator() : copy().iterator();
+                for (int i = 0; i < returned; i++) {
+                    copyIterator.next();
+                }
+                iterator = copyIterator;
+                copied = true;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * A view of a range of an array.
+     */
+    private static final class ArrayView extends SharedPathDeque {
+
+        private final Region.Node[] nodes;
+        private int from;
+        private int to;
+
+        ArrayView(Region.Node[] nodes) {
+            this.nodes = nodes;
+            to = nodes.length;
+        }
+
+        @Override
+        int sharedSize() {
+            return to - from;
+        }
+
+        @Override
+        Region.Node sharedFirst() {
+            return nodes[from];
+        }
+
+        @Override
+        Region.Node sharedLast() {
+            return nodes[to - 1];
+        }
+
+        @Override
+        void sharedRemoveFirst() {
+            from++;
+        }
+
+        @Override
+        Region.Node sharedPollLast() {
+            return nodes[--to];
+        }
+
+        @Override
+        void sharedClear() {
+            from = to;
+        }
+
+        @Override
+        Iterator<Region.Node> sharedIterator() {
+            return new Iterator<>() {
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public Region.Node next() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    return nodes[next++];
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package projekt.delivery.routing;
+
+import org.jetbrains.annotations.Nullable;
+import projekt.base.ChessboardDistanceCalculator;
+import projekt.base.DistanceCalculator;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+import projekt.base.ManhattanDistanceCalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable spatial index over the {@link Location}s of the nodes of a {@link Region}.<p>
+ *
+ * The nodes are stored in an implicit, array-based 2-d tree, so nearest neighbor and radius queries only visit the
+ * parts of the region close to the queried location. Distances are measured with the {@link DistanceCalculator} of the
+ * region. Subtrees are skipped using the fact that the distance of two locations is at least the difference of their
+ * x- or y-coordinates, which holds for the {@link EuclideanDistanceCalculator}, the {@link ManhattanDistanceCalculator}
+ * and the {@link ChessboardDistanceCalculator}. For other distance calculators all nodes are checked.<p>
+ *
+ * Results are ordered by their distance to the queried location and nodes with equal distance by their location.
+ */
+public final class SpatialIndex {
+
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator.comparingDouble(Candidate::distance)
+        .thenComparing(candidate -> candidate.node().getLocation());
+
+    private final DistanceCalculator distanceCalculator;
+    private final boolean prune;
+
+    /**
+     * The nodes in the order of the tree: the root of the range {@code [from, to)} is at {@code (from + to) >>> 1},
+     * its left subtree at {@code [from, root)} and its right subtree at {@code (root, to)}. The tree is split by the
+     * x-coordinate on even and by the y-coordinate on odd depths.
+     */
+    private final Region.Node[] nodes;
+    private final int[] xs;
+    private final int[] ys;
+
+    private SpatialIndex(Collection<? extends Region.Node> regionNodes, DistanceCalculator distanceCalculator) {
+        this.distanceCalculator = distanceCalculator;
+        prune = distanceCalculator instanceof EuclideanDistanceCalculator
+            || distanceCalculator instanceof ManhattanDistanceCalculator
+            || distanceCalculator instanceof ChessboardDistanceCalculator;
+        nodes = regionNodes.toArray(Region.Node[]::new);
+        xs = new int[nodes.length];
+        ys = new int[nodes.length];
+        build(0, nodes.length, 0);
+        for (int i = 0; i < nodes.length; i++) {
+            xs[i] = nodes[i].getLocation().getX();
+            ys[i] = nodes[i].getLocation().getY();
+        }
+    }
+
+    /**
+     * Creates the {@link SpatialIndex} of all nodes of the given {@link Region}.
+     *
+     * @param region the {@link Region} to index
+     * @return the {@link SpatialIndex} of the nodes of {@code region}
+     */
+    public static SpatialIndex of(Region region) {
+        return new SpatialIndex(region.getNodes(), region.getDistanceCalculator());
+    }
+
+    /**
+     * Returns the number of indexed nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the node closest to the given {@link Location}.
+     *
+     * @param location the {@link Location} to search from
+     * @return the closest node or {@code null} if the index is empty
+     */
+    public @Nullable Region.Node nearest(Location location) {
+        List<Region.Node> nearest = nearest(location, 1);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * Returns the {@code k} nodes closest to the given {@link Location}.
+     *
+     * @param location the {@link Location} to search from
+     * @param k        the maximum number of nodes to return
+     * @return the closest nodes, ordered by their distance to {@code location}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public List<Region.Node> nearest(Location location, int k) {
+        return nearest(location, k, Region.Node.class);
+    }
+
+    /**
+     * Returns the {@code k} nodes of the given type closest to the given {@link Location}, e.g. the closest
+     * {@link Region.Restaurant}s.
+     *
+     * @param location the {@link Location} to search from
+     * @param k        the maximum number of nodes to return
+     * @param type     the type of the nodes to return
+     * @param <N>      the type of the nodes to return
+     * @return the closest nodes of type {@code type}, ordered by their distance to {@code location}
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public <N extends Region.Node> List<N> nearest(Location location, int k, Class<N> type) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        NearestSearch search = new NearestSearch(location, Math.min(k, nodes.length), type);
+        if (search.capacity > 0) {
+            search.visit(0, nodes.length, 0);
+        }
+        return search.result(type);
+    }
+
+    /**
+     * Returns all nodes whose distance to the given {@link Location} is at most {@code radius}.
+     *
+     * @param location the {@link Location} to search from
+     * @param radius   the maximum distance of the returned nodes
+     * @return the nodes within {@code radius}, ordered by their distance to {@code location}
+     */
+    public List<Region.Node> withinRadius(Location location, double radius) {
+        return withinRadius(location, radius, Region.Node.class);
+    }
+
+    /**
+     * Returns all nodes of the given type whose distance to the given {@link Location} is at most {@code radius}, e.g.
+     * all {@link Region.Neighborhood}s in a delivery zone.
+     *
+     * @param location the {@link Location} to search from
+     * @param radius   the maximum distance of the returned nodes
+     * @param type     the type of the nodes to return
+     * @param <N>      the type of the nodes to return
+     * @return the nodes of type {@code type} within {@code radius}, ordered by their distance to {@code location}
+     */
+    public <N extends Region.Node> List<N> withinRadius(Location location, double radius, Class<N> type) {
+        List<Candidate> candidates = new ArrayList<>();
+        collect(location, radius, type, 0, nodes.length, 0, candidates);
+        candidates.sort(CANDIDATE_ORDER);
+        List<N> result = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            result.add(type.cast(candidate.node()));
+        }
+        return result;
+    }
+
+    private void collect(Location location, double radius, Class<?> type, int from, int to, int depth,
+                         List<Candidate> candidates) {
+        if (from >= to) {
+            return;
+        }
+        int root = (from + to) >>> 1;
+        if (type.isInstance(nodes[root])) {
+            double distance = distanceCalculator.calculateDistance(location, nodes[root].getLocation());
+            if (distance <= radius) {
+                candidates.add(new Candidate(nodes[root], distance));
+            }
+        }
+        // the left subtree is at least difference and the right subtree at least -difference away
+        long difference = planeDifference(location, root, depth);
+        if (!prune || difference <= radius) {
+            collect(location, radius, type, from, root, depth + 1, candidates);
+        }
+        if (!prune || -difference <= radius) {
+            collect(location, radius, type, root + 1, to, depth + 1, candidates);
+        }
+    }
+
+    /**
+     * Returns the signed difference between the given location and the splitting plane of the given root, negative if
+     * the location lies on the left side.
+     */
+    private long planeDifference(Location location, int root, int depth) {
+        return depth % 2 == 0
+            ? (long) location.getX() - xs[root]
+            : (long) location.getY() - ys[root];
+    }
+
+    /**
+     * Arranges the nodes of {@code [from, to)} as tree by placing the median of the splitting coordinate at the root.
+     */
+    private void build(int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int root = (from + to) >>> 1;
+        Comparator<Region.Node> order = depth % 2 == 0
+            ? Comparator.comparingInt((Region.Node node) -> node.getLocation().getX())
+            : Comparator.comparingInt((Region.Node node) -> node.getLocation().getY());
+        // sorting the range is simpler than a selection and keeps the construction in O(n log^2 n)
+        Arrays.sort(nodes, from, to, order);
+        build(from, root, depth + 1);
+        build(root + 1, to, depth + 1);
+    }
+
+    /**
+     * A node found by a query and its distance to the queried location.
+     */
+    private record Candidate(Region.Node node, double distance) {
+    }
+
+    /**
+     * A k-nearest neighbor search that keeps the best candidates found so far in a max-heap.
+     */
+    private final class NearestSearch {
+
+        private final Location location;
+        private final int capacity;
+        private final Class<?> type;
+        private final Candidate[] heap;
+        private int size;
+
+        NearestSearch(Location location, int capacity, Class<?> type) {
+            this.location = location;
+            this.capacity = capacity;
+            this.type = type;
+            heap = new Candidate[capacity];
+        }
+
+        void visit(int from, int to, int depth) {
+            if (from >= to) {
+                return;
+            }
+            int root = (from + to) >>> 1;
+            if (type.isInstance(nodes[root])) {
+                offer(new Candidate(nodes[root], distanceCalculator.calculateDistance(location, nodes[root].getLocation())));
+            }
+            long difference = planeDifference(location, root, depth);
+            // visit the side of the location first, the other side only if it can still contain a better candidate
+            if (difference < 0) {
+                visit(from, root, depth + 1);
+                if (mayContainCandidate(-difference)) {
+                    visit(root + 1, to, depth + 1);
+                }
+            } else {
+                visit(root + 1, to, depth + 1);
+                if (mayContainCandidate(difference)) {
+                    visit(from, root, depth + 1);
+                }
+            }
+        }
+
+        private boolean mayContainCandidate(long planeDistance) {
+            return !prune || size < capacity || planeDistance <= heap[0].distance();
+        }
+
+        private void offer(Candidate candidate) {
+            if (size < capacity) {
+                heap[size] = candidate;
+                siftUp(size++);
+            } else if (CANDIDATE_ORDER.compare(candidate, heap[0]) < 0) {
+                heap[0] = candidate;
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (CANDIDATE_ORDER.compare(heap[index], heap[parent]) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int largest = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (CANDIDATE_ORDER.compare(heap[child], heap[largest]) > 0) {
+                        largest = child;
+                    }
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            Candidate candidate = heap[a];
+            heap[a] = heap[b];
+            heap[b] = candidate;
+        }
+
+        <N extends Region.Node> List<N> result(Class<N> type) {
+            Candidate[] candidates = Arrays.copyOf(heap, size);
+            Arrays.sort(candidates, CANDIDATE_ORDER);
+            List<N> result = new ArrayList<>(size);
+            for (Candidate candidate : candidates) {
+                result.add(type.cast(candidate.node()));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package projekt.delivery.routing;
+
+import projekt.base.DistanceCalculator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calculates the fastest paths through a {@link Region} whose edge durations depend on the tick they are entered at,
+ * see {@link TravelTimeTable}.<p>
+ *
+ * Since all travel time profiles satisfy the FIFO property, waiting at a node never leads to an earlier arrival and
+ * the fastest paths can be found with Dijkstra's algorithm on arrival ticks: an edge that is entered at the arrival
+ * tick of its first node is left at that tick plus its duration at that tick. Queries with an end node use A* with the
+ * distance to the end node according to the {@link DistanceCalculator} of the region, scaled down by the smallest ratio
+ * of any duration to the distance covered, as heuristic.
+ */
+public class TimeDependentPathCalculator {
+
+    private final TravelTimeTable travelTimes;
+    private final CompiledRegion graph;
+    private final DistanceCalculator distanceCalculator;
+    private final double lowerBoundFactor;
+    private final ThreadLocal<SearchSpace> searchSpaces;
+
+    /**
+     * Creates a new {@link TimeDependentPathCalculator}.
+     *
+     * @param travelTimes the {@link TravelTimeTable} to take the durations of the edges from
+     */
+    public TimeDependentPathCalculator(TravelTimeTable travelTimes) {
+        this.travelTimes = travelTimes;
+        graph = travelTimes.getCompiledRegion();
+        distanceCalculator = graph.getRegion().getDistanceCalculator();
+        double factor = 1.0;
+        for (int edge = 0; edge < graph.edgeCount(); edge++) {
+            double distance = distance(graph.edgeNodeA(edge), graph.edgeNodeB(edge));
+            if (distance > 0) {
+                factor = Math.min(factor, travelTimes.getMinDuration(edge) / distance);
+            }
+        }
+        // leave some room for rounding errors of the distance calculator
+        lowerBoundFactor = factor * (1 - 1e-9);
+        searchSpaces = ThreadLocal.withInitial(() -> new SearchSpace(graph.nodeCount()));
+    }
+
+    /**
+     * Returns the {@link TravelTimeTable} this calculator takes the durations of the edges from.
+     *
+     * @return the {@link TravelTimeTable} of this calculator
+     */
+    public TravelTimeTable getTravelTimes() {
+        return travelTimes;
+    }
+
+    /**
+     * Returns the fastest path from {@code start} to {@code end} when leaving {@code start} at the given tick.
+     *
+     * @param start         the start node
+     * @param end           the end node
+     * @param departureTick the tick {@code start} is left at
+     * @return the nodes of the path in order, excluding {@code start} and including {@code end}
+     * @throws IllegalArgumentException if there is no path from {@code start} to {@code end}
+     */
+    public Deque<Region.Node> getPath(Region.Node start, Region.Node end, long departureTick) {
+        int startId = graph.requireId(start);
+        int endId = graph.requireId(end);
+        SearchSpace space = search(startId, endId, departureTick);
+        Deque<Region.Node> path = new ArrayDeque<>();
+        for (int node = endId; node != startId; node = space.predecessor(node)) {
+            path.addFirst(graph.node(node));
+        }
+        return path;
+    }
+
+    /**
+     * Returns the earliest tick {@code end} can be reached at when leaving {@code start} at the given tick.
+     *
+     * @param start         the start node
+     * @param end           the end node
+     * @param departureTick the tick {@code start} is left at
+     * @return the earliest arrival tick at {@code end}
+     * @throws IllegalArgumentException if there is no path from {@code start} to {@code end}
+     */
+    public long getArrivalTick(Region.Node start, Region.Node end, long departureTick) {
+        int endId = graph.requireId(end);
+        return search(graph.requireId(start), endId, departureTick).duration(endId);
+    }
+
+    /**
+     * Returns the earliest tick every node can be reached at when leaving {@code start} at the given tick.
+     *
+     * @param start         the start node
+     * @param departureTick the tick {@code start} is left at
+     * @return the earliest arrival ticks of all nodes reachable from {@code start}
+     */
+    public Map<Region.Node, Long> getArrivalTicks(Region.Node start, long departureTick) {
+        SearchSpace space = search(graph.requireId(start), -1, departureTick);
+        Map<Region.Node, Long> arrivalTicks = new HashMap<>(space.reachedCount() * 2);
+        for (int i = 0; i < space.reachedCount(); i++) {
+            int node = space.reached(i);
+            arrivalTicks.put(graph.node(node), space.duration(node));
+        }
+        return arrivalTicks;
+    }
+
+    /**
+     * Searches the earliest arrival ticks from {@code start}, stops as soon as {@code end} is reached.
+     *
+     * @param start         the id of the start node
+     * @param end           the id of the end node or {@code -1} to reach all nodes
+     * @param departureTick the tick {@code start} is left at
+     * @return the search space with the arrival ticks of all settled nodes as durations
+     * @throws IllegalArgumentException if {@code end} is not reachable
+     */
+    private SearchSpace search(int start, int end, long departureTick) {
+        SearchSpace space = searchSpaces.get();
+        IndexedHeap queue = space.queue();
+        space.reset();
+        space.relax(start, departureTick, -1);
+        queue.insertOrDecrease(start, departureTick);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (u == end) {
+                return space;
+            }
+            long arrivalU = space.duration(u);
+            for (int arc = graph.firstArc(u), last = graph.firstArc(u + 1); arc < last; arc++) {
+                int v = graph.arcTarget(arc);
+                long arrival = arrivalU + travelTimes.getDuration(graph.arcEdge(arc), arrivalU);
+                if (space.relax(v, arrival, u)) {
+                    queue.insertOrDecrease(v, end < 0 ? arrival : arrival + lowerBound(v, end));
+                }
+            }
+        }
+        if (end >= 0) {
+            throw new IllegalArgumentException("No path from %s to %s".formatted(graph.node(start), graph.node(end)));
+        }
+        return space;
+    }
+
+    private long lowerBound(int node, int end) {
+        return (long) (lowerBoundFactor * distance(node, end));
+    }
+
+    private double distance(int a, int b) {
+        return distanceCalculator.calculateDistance(graph.node(a).getLocation(), graph.node(b).getLocation());
+    }
+}
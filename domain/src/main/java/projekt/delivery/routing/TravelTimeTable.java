@@ -0,0 +1,259 @@
+package projekt.delivery.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-dependent durations of the edges of a {@link Region}.<p>
+ *
+ * The duration of an edge depends on the tick it is entered at and is described by a piecewise-linear travel time
+ * profile that repeats every {@link #getPeriod() period}, e.g. every simulated day. All profiles share the same
+ * breakpoints, e.g. the start of every simulated hour, so a profile only consists of the durations at the breakpoints.
+ * Between two breakpoints the duration is interpolated linearly and rounded up, after the last breakpoint it is
+ * interpolated towards the first breakpoint of the next period. Edges without profile keep the duration of the region.
+ * <p>
+ *
+ * All profiles satisfy the FIFO property: entering an edge later never leads to leaving it earlier, i.e. the duration
+ * never decreases faster than the time passes. This allows the {@link TimeDependentPathCalculator} to compute shortest
+ * paths with a variant of Dijkstra's algorithm.<p>
+ *
+ * Profiles are stored in primitive arrays and identical profiles are only stored once, so every edge only needs a
+ * single int in addition to the distinct profiles. Edges are referred to by their ids in a {@link CompiledRegion}.
+ */
+public final class TravelTimeTable {
+
+    private final CompiledRegion graph;
+    private final long period;
+    private final long[] breakpoints;
+
+    /**
+     * The index of the profile of every edge or {@code -1} if the duration of the edge is constant.
+     */
+    private final int[] profiles;
+
+    /**
+     * The durations of profile {@code p} at the breakpoints are {@code durations[p * breakpoints.length + i]}.
+     */
+    private final long[] durations;
+
+    /**
+     * The smallest duration of every edge.
+     */
+    private final long[] minDurations;
+
+    private TravelTimeTable(CompiledRegion graph, long period, long[] breakpoints, int[] profiles, long[] durations) {
+        this.graph = graph;
+        this.period = period;
+        this.breakpoints = breakpoints;
+        this.profiles = profiles;
+        this.durations = durations;
+        minDurations = new long[profiles.length];
+        for (int edge = 0; edge < profiles.length; edge++) {
+            if (profiles[edge] < 0) {
+                minDurations[edge] = graph.edgeDuration(edge);
+            } else {
+                int from = profiles[edge] * breakpoints.length;
+                minDurations[edge] = Arrays.stream(durations, from, from + breakpoints.length).min().orElseThrow();
+            }
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder} for a {@link TravelTimeTable} of the given {@link Region}.
+     *
+     * @param region      the {@link Region} whose edges get profiles
+     * @param period      the number of ticks after which all profiles repeat
+     * @param breakpoints the ticks within a period at which the profiles define the durations, in ascending order
+     * @return a new {@link Builder}
+     * @throws IllegalArgumentException if {@code period} is not positive, there are no breakpoints or the breakpoints
+     *                                  are not ascending ticks in {@code [0, period)}
+     */
+    public static Builder builder(Region region, long period, long... breakpoints) {
+        return new Builder(CompiledRegion.of(region), period, breakpoints);
+    }
+
+    /**
+     * Returns the {@link CompiledRegion} whose edge ids are used by this table.
+     *
+     * @return the {@link CompiledRegion} of this table
+     */
+    public CompiledRegion getCompiledRegion() {
+        return graph;
+    }
+
+    /**
+     * Returns the number of ticks after which all profiles repeat.
+     *
+     * @return the period of the profiles
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the duration of the given {@link Region.Edge} when it is entered at the given tick.
+     *
+     * @param edge          the {@link Region.Edge}
+     * @param departureTick the tick the edge is entered at
+     * @return the duration of {@code edge} at {@code departureTick}
+     * @throws IllegalArgumentException if {@code edge} is not part of the region
+     */
+    public long getDuration(Region.Edge edge, long departureTick) {
+        return getDuration(graph.requireEdgeId(edge), departureTick);
+    }
+
+    /**
+     * Returns the duration of the edge with the given id when it is entered at the given tick.
+     *
+     * @param edge          the id of the edge
+     * @param departureTick the tick the edge is entered at
+     * @return the duration of the edge at {@code departureTick}
+     */
+    public long getDuration(int edge, long departureTick) {
+        int profile = profiles[edge];
+        if (profile < 0) {
+            return graph.edgeDuration(edge);
+        }
+        int count = breakpoints.length;
+        int offset = profile * count;
+        long phase = Math.floorMod(departureTick, period);
+        // the last breakpoint before the phase, the phase may also lie before the first breakpoint of the period
+        int segment = Arrays.binarySearch(breakpoints, phase);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        if (segment < 0) {
+            // continue the last segment of the previous period
+            segment = count - 1;
+            phase += period;
+        }
+        int next = segment + 1 == count ? 0 : segment + 1;
+        long start = breakpoints[segment];
+        long end = next == 0 ? breakpoints[0] + period : breakpoints[next];
+        long length = end - start;
+        long startDuration = durations[offset + segment];
+        long endDuration = durations[offset + next];
+        long numerator = startDuration * length + (endDuration - startDuration) * (phase - start);
+        return -Math.floorDiv(-numerator, length);
+    }
+
+    /**
+     * Returns the smallest duration the edge with the given id has at any tick.
+     *
+     * @param edge the id of the edge
+     * @return the smallest duration of the edge
+     */
+    public long getMinDuration(int edge) {
+        return minDurations[edge];
+    }
+
+    /**
+     * Returns the number of distinct profiles stored in this table.
+     *
+     * @return the number of distinct profiles
+     */
+    public int profileCount() {
+        return durations.length / breakpoints.length;
+    }
+
+    /**
+     * A builder for {@link TravelTimeTable}s.
+     */
+    public static final class Builder {
+
+        private final CompiledRegion graph;
+        private final long period;
+        private final long[] breakpoints;
+        private final int[] profiles;
+        private final Map<Profile, Integer> profileIndices = new HashMap<>();
+        private final List<long[]> distinctProfiles = new ArrayList<>();
+
+        private Builder(CompiledRegion graph, long period, long[] breakpoints) {
+            if (period <= 0) {
+                throw new IllegalArgumentException("period must be positive");
+            }
+            if (breakpoints.length == 0) {
+                throw new IllegalArgumentException("At least one breakpoint is required");
+            }
+            for (int i = 0; i < breakpoints.length; i++) {
+                if (breakpoints[i] < 0 || breakpoints[i] >= period || i > 0 && breakpoints[i] <= breakpoints[i - 1]) {
+                    throw new IllegalArgumentException("Breakpoints must be ascending ticks in [0, period)");
+                }
+            }
+            this.graph = graph;
+            this.period = period;
+            this.breakpoints = breakpoints.clone();
+            profiles = new int[graph.edgeCount()];
+            Arrays.fill(profiles, -1);
+        }
+
+        /**
+         * Sets the profile of the given {@link Region.Edge}.
+         *
+         * @param edge      the {@link Region.Edge}
+         * @param durations the durations of {@code edge} at the breakpoints
+         * @return this {@link Builder}
+         * @throws IllegalArgumentException if {@code edge} is not part of the region, the number of durations does not
+         *                                  match the number of breakpoints, a duration is negative or the profile
+         *                                  violates the FIFO property
+         */
+        public Builder profile(Region.Edge edge, long... durations) {
+            if (durations.length != breakpoints.length) {
+                throw new IllegalArgumentException("Expected %d durations but got %d".formatted(breakpoints.length, durations.length));
+            }
+            for (int i = 0; i < durations.length; i++) {
+                if (durations[i] < 0) {
+                    throw new IllegalArgumentException("Durations must not be negative");
+                }
+                int next = i + 1 == durations.length ? 0 : i + 1;
+                long length = next == 0 ? breakpoints[0] + period - breakpoints[i] : breakpoints[next] - breakpoints[i];
+                if (durations[i] - durations[next] > length) {
+                    throw new IllegalArgumentException("Profile of edge %s violates the FIFO property between breakpoints %d and %d"
+                        .formatted(edge, breakpoints[i], breakpoints[next]));
+                }
+            }
+            int id = graph.requireEdgeId(edge);
+            Profile profile = new Profile(durations.clone());
+            Integer index = profileIndices.get(profile);
+            if (index == null) {
+                index = distinctProfiles.size();
+                profileIndices.put(profile, index);
+                distinctProfiles.add(profile.durations());
+            }
+            profiles[id] = index;
+            return this;
+        }
+
+        /**
+         * Constructs the {@link TravelTimeTable}.
+         *
+         * @return the new {@link TravelTimeTable}
+         */
+        public TravelTimeTable build() {
+            long[] durations = new long[distinctProfiles.size() * breakpoints.length];
+            for (int profile = 0; profile < distinctProfiles.size(); profile++) {
+                System.arraycopy(distinctProfiles.get(profile), 0, durations, profile * breakpoints.length, breakpoints.length);
+            }
+            return new TravelTimeTable(graph, period, breakpoints, profiles.clone(), durations);
+        }
+
+        /**
+         * The durations of a profile with value semantics, used to store identical profiles only once.
+         */
+        private record Profile(long[] durations) {
+
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof Profile profile && Arrays.equals(durations, profile.durations);
+            }
+
+            @Override
+            public int hashCode() {
+                return Arrays.hashCode(durations);
+            }
+        }
+    }
+}
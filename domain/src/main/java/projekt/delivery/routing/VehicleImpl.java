@@ -14,7 +14,7 @@ class VehicleImpl implements Vehicle {
     private final double capacity;
     private final List<ConfirmedOrder> orders = new ArrayList<>();
     private final VehicleManagerImpl vehicleManager;
-    private final Deque<PathImpl> moveQueue = new LinkedList<>();
+    private final Deque<PathImpl> moveQueue = new ArrayDeque<>();
     private final VehicleManager.OccupiedRestaurant startingNode;
     private AbstractOccupied<?> occupied;
 
@@ -46,6 +46,34 @@ class VehicleImpl implements Vehicle {
         return new LinkedList<>(moveQueue);
     }
 
+    /**
+     * Returns whether this vehicle has paths left to follow.
+     *
+     * @return {@code true} if the move queue is not empty
+     */
+    boolean hasPaths() {
+        return !moveQueue.isEmpty();
+    }
+
+    /**
+     * Returns the component this vehicle enters with its next {@link #move(long)}, or {@code null} if the next move
+     * does not just enter the next component of its path, e.g. because it finishes a path.
+     *
+     * @return the next component of this vehicle or {@code null}
+     */
+    @Nullable AbstractOccupied<?> nextOccupied() {
+        PathImpl path = moveQueue.peek();
+        if (path == null || path.nodes().isEmpty()) {
+            return null;
+        }
+        Region.Node next = path.nodes().peek();
+        if (occupied instanceof OccupiedNodeImpl<?> node) {
+            Region.Edge edge = vehicleManager.getRegion().getEdge(node.getComponent(), next);
+            return edge == null ? null : vehicleManager.getOccupied(edge);
+        }
+        return vehicleManager.getOccupied(next);
+    }
+
     void setOccupied(AbstractOccupied<?> occupied) {
         this.occupied = occupied;
     }
@@ -110,6 +138,7 @@ class VehicleImpl implements Vehicle {
             throw new IllegalArgumentException("Vehicle 1 cannot move to own node NodeImpl(name='E', location='(4,4)', connections='[(3,3)]')");
         }
         moveQueue.add(new PathImpl(vehicleManager.getPathCalculator().getPath(startingNode.getVehicleManager().getRegion().getNode(this.getCurrentNode().getLocation()), node), arrivalAction));
+        vehicleManager.scheduler.activate(this);
     } //TODO H5.3 - remove if implemented
 
 
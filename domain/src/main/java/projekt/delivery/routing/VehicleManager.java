@@ -1,5 +1,6 @@
 package projekt.delivery.routing;
 
+import org.jetbrains.annotations.Nullable;
 import projekt.base.Location;
 import projekt.delivery.event.Event;
 import projekt.delivery.event.EventBus;
@@ -102,6 +103,20 @@ public interface VehicleManager {
      */
     List<Event> tick(long currentTick);
 
+    /**
+     * Returns the first tick from the given tick on in which a {@link Vehicle} may spawn or move. Executing only this
+     * tick instead of all ticks before it leads to the same state, so the ticks in between can be skipped.<p>
+     *
+     * The default implementation does not allow to skip any tick.
+     *
+     * @param fromTick the next tick that would be executed.
+     * @return The first tick {@code >= fromTick} in which a {@link Vehicle} may spawn or move or {@code -1} if no
+     *     {@link Vehicle} will ever move again.
+     */
+    default long nextEventTick(long fromTick) {
+        return fromTick;
+    }
+
     /**
      * Resets this {@link VehicleManager} to its start state.
      */
@@ -203,6 +218,23 @@ public interface VehicleManager {
          */
         Builder pathCalculator(PathCalculator pathCalculator);
 
+        /**
+         * Sets the {@link TravelTimeTable} that determines how long {@link Vehicle}s need for an {@link Region.Edge}
+         * depending on the tick they enter it. Without a {@link TravelTimeTable}, the duration of the edge is used.
+         * @param travelTimes The new {@link TravelTimeTable} or {@code null}.
+         * @return The current {@link Builder}.
+         */
+        Builder travelTimes(@Nullable TravelTimeTable travelTimes);
+
+        /**
+         * Sets the number of threads that move the {@link Vehicle}s in every tick. The events of a tick do not depend
+         * on the number of threads. By default, all {@link Vehicle}s are moved by the thread executing the tick.
+         * @param parallelism The number of threads.
+         * @return The current {@link Builder}.
+         * @throws IllegalArgumentException If {@code parallelism} is not positive.
+         */
+        Builder parallelism(int parallelism);
+
         /**
          * Adds a new {@link Vehicle} to the constructed {@link VehicleManager}.
          * @param startingLocation The starting {@link Location} of the new {@link Vehicle}.
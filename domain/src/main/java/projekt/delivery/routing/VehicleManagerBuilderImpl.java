@@ -1,5 +1,6 @@
 package projekt.delivery.routing;
 
+import org.jetbrains.annotations.Nullable;
 import projekt.base.Location;
 
 import java.util.ArrayList;
@@ -11,6 +12,8 @@ class VehicleManagerBuilderImpl implements VehicleManager.Builder {
     private final List<VehicleBuilder> vehicles = new ArrayList<>();
     private Region region;
     private PathCalculator pathCalculator;
+    private @Nullable TravelTimeTable travelTimes;
+    private int parallelism = 1;
 
     @Override
     public VehicleManager.Builder region(Region region) {
@@ -24,6 +27,21 @@ class VehicleManagerBuilderImpl implements VehicleManager.Builder {
         return this;
     }
 
+    @Override
+    public VehicleManager.Builder travelTimes(@Nullable TravelTimeTable travelTimes) {
+        this.travelTimes = travelTimes;
+        return this;
+    }
+
+    @Override
+    public VehicleManager.Builder parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
     @Override
     public VehicleManager.Builder addVehicle(
         Location startingLocation,
@@ -47,6 +65,10 @@ class VehicleManagerBuilderImpl implements VehicleManager.Builder {
         Objects.requireNonNull(region, "region");
         Objects.requireNonNull(pathCalculator, "pathCalculator");
         VehicleManagerImpl vehicleManager = new VehicleManagerImpl(region, pathCalculator);
+        vehicleManager.travelTimes = travelTimes;
+        if (parallelism > 1) {
+            vehicleManager.scheduler.parallelize(vehicleManager, parallelism);
+        }
         for (VehicleBuilder vehicleBuilder : vehicles) {
             vehicleManager.addVehicle(vehicleBuilder.startingLocation, vehicleBuilder.capacity);
         }
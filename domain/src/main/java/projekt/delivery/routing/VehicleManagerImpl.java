@@ -1,5 +1,6 @@
 package projekt.delivery.routing;
 
+import org.jetbrains.annotations.Nullable;
 import projekt.base.Location;
 import projekt.delivery.event.Event;
 import projekt.delivery.event.EventBus;
@@ -19,6 +20,12 @@ class VehicleManagerImpl implements VehicleManager {
     private final List<VehicleImpl> vehicles = new ArrayList<>();
     private final Collection<Vehicle> unmodifiableVehicles = Collections.unmodifiableCollection(vehicles);
     private final EventBus eventBus = new EventBus();
+    final MovementScheduler scheduler = new MovementScheduler();
+
+    /**
+     * The time-dependent durations of the edges or {@code null} if vehicles need the duration of the edge.
+     */
+    @Nullable TravelTimeTable travelTimes;
 
     VehicleManagerImpl(
         Region region,
@@ -83,10 +90,23 @@ class VehicleManagerImpl implements VehicleManager {
     }//TODO H6.2 - remove if implemented
 
     private OccupiedNodeImpl<? extends Region.Node> getOccupiedNode(Location location) {
-        return occupiedNodes.values().stream()
-            .filter(node -> node.getComponent().getLocation().equals(location))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Could not find node with given predicate"));
+        Region.Node node = region.getNode(location);
+        OccupiedNodeImpl<? extends Region.Node> occupied = node == null ? null : occupiedNodes.get(node);
+        if (occupied == null) {
+            throw new IllegalArgumentException("Could not find node with given predicate");
+        }
+        return occupied;
+    }
+
+    /**
+     * Returns the number of ticks a vehicle needs for the given edge when entering it at the given tick.
+     *
+     * @param edge          the edge
+     * @param departureTick the tick the edge is entered at
+     * @return the duration of {@code edge} at {@code departureTick}
+     */
+    long getDuration(Region.Edge edge, long departureTick) {
+        return travelTimes == null ? edge.getDuration() : travelTimes.getDuration(edge, departureTick);
     }
 
     @Override
@@ -115,19 +135,15 @@ class VehicleManagerImpl implements VehicleManager {
     public <C extends Region.Component<C>> AbstractOccupied<C> getOccupied(C component) {
         Objects.requireNonNull(component, "Component is null!");
         if (component instanceof Region.Node) {
-            Collection<Occupied<? extends Region.Node>> occupiedNodes = getOccupiedNodes();
-            for (Occupied<? extends Region.Node> node : occupiedNodes) {
-                if (node.getComponent().equals(component)) {
-                    return (AbstractOccupied<C>) node;
-                }
+            AbstractOccupied<C> node = (AbstractOccupied<C>) occupiedNodes.get(component);
+            if (node != null) {
+                return node;
             }
             throw new IllegalArgumentException("Could not find occupied node for " + component.toString());
         } else if (component instanceof Region.Edge) {
-            Collection<Occupied<? extends Region.Edge>> occupiedEdges = getOccupiedEdges();
-            for (Occupied<? extends Region.Edge> edge : occupiedEdges) {
-                if (edge.getComponent().equals(component)) {
-                    return (AbstractOccupied<C>) edge;
-                }
+            AbstractOccupied<C> edge = (AbstractOccupied<C>) occupiedEdges.get(component);
+            if (edge != null) {
+                return edge;
             }
             throw new IllegalArgumentException("Could not find occupied edge for " + component.toString());
         } else {
@@ -197,18 +213,21 @@ class VehicleManagerImpl implements VehicleManager {
             spawnVehicle(vehicle, currentTick);
         }
         vehiclesToSpawn.clear();
-        // It is important that nodes are ticked before edges
-        // This only works because edge ticking is idempotent
-        // Otherwise, there may be two state changes in a single tick.
-        // For example, a node tick may move a vehicle onto an edge.
-        // Ticking this edge afterwards does not move the vehicle further along the edge
+        // Only vehicles that can move are looked at, see MovementScheduler.
+        // It is still important that vehicles on nodes are moved before vehicles on edges,
+        // so a vehicle moved onto an edge in this tick is not moved further along the edge
         // compared to a vehicle already on the edge.
-        occupiedNodes.values().forEach(occupiedNode -> occupiedNode.tick(currentTick));
-        occupiedEdges.values().forEach(occupiedEdge -> occupiedEdge.tick(currentTick));
+        scheduler.tick(currentTick);
         return eventBus.popEvents(currentTick);
     }
 
+    @Override
+    public long nextEventTick(long fromTick) {
+        return vehiclesToSpawn.isEmpty() ? scheduler.nextTick(fromTick) : fromTick;
+    }
+
     public void reset() {
+        scheduler.clear();
         for (AbstractOccupied<?> occupied : getAllOccupied()) {
             occupied.reset();
         }
@@ -249,6 +268,7 @@ class VehicleManagerImpl implements VehicleManager {
         vehicles.add(vehicle);
         OccupiedRestaurantImpl warehouse = (OccupiedRestaurantImpl) vehicle.getOccupied();
         warehouse.vehicles.put(vehicle, new AbstractOccupied.VehicleStats(currentTick, null));
+        scheduler.activate(vehicle);
         getEventBus().queuePost(SpawnEvent.of(currentTick, vehicle, warehouse.getComponent()));
     }
 }
@@ -57,6 +57,13 @@ public class BasicDeliverySimulation implements Simulation {
                 }
                 continue;
             }
+            if (simulationConfig.isFastForward()) {
+                if (!skipIdleTicks()) {
+                    break;
+                }
+                runCurrentTick();
+                continue;
+            }
             long tickStartTime = System.currentTimeMillis();
 
             runCurrentTick();
@@ -150,6 +157,37 @@ public class BasicDeliverySimulation implements Simulation {
         return deliveryService;
     }
 
+    /**
+     * Advances the current tick to the next tick in which an order is generated, a vehicle spawns or moves, or the
+     * delivery service has pending orders to work on. The last tick of a simulation with a fixed length is always
+     * executed.
+     *
+     * @return False, if nothing will ever happen again in a simulation without fixed length.
+     */
+    private boolean skipIdleTicks() {
+        long nextTick = getNextEventTick();
+        if (simulationLength != -1 && (nextTick == -1 || nextTick >= simulationLength)) {
+            nextTick = simulationLength - 1;
+        }
+        if (nextTick == -1) {
+            return false;
+        }
+        currentTick = Math.max(currentTick, nextTick);
+        return true;
+    }
+
+    private long getNextEventTick() {
+        if (!deliveryService.getPendingOrders().isEmpty()) {
+            return currentTick;
+        }
+        long orderTick = currentOrderGenerator.nextOrderTick(currentTick);
+        long vehicleTick = deliveryService.getVehicleManager().nextEventTick(currentTick);
+        if (orderTick == -1 || vehicleTick == -1) {
+            return Math.max(orderTick, vehicleTick);
+        }
+        return Math.min(orderTick, vehicleTick);
+    }
+
     private void setupNewSimulation() {
         currentTick = 0;
         terminationRequested = false;
@@ -5,16 +5,17 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * A config for a {@link Simulation}.<p>
  *
- * It contains the length of a tick and whether the {@link Simulation} is paused.
+ * It contains the length of a tick, whether the {@link Simulation} is paused and whether it runs in fast-forward mode.
  */
 public class SimulationConfig {
     private final AtomicInteger millisecondsPerTick;
     private volatile boolean paused = false;
+    private volatile boolean fastForward = false;
 
     /**
      * Creates a new {@link Simulation} instance.<p>
      *
-     * By default, the created {@link Simulation} is not paused.
+     * By default, the created {@link Simulation} is not paused and does not run in fast-forward mode.
      *
      * @param millisecondsPerTick The length of a tick in  milliseconds.
      */
@@ -53,4 +54,23 @@ public class SimulationConfig {
     public void setPaused(boolean paused) {
         this.paused = paused;
     }
+
+    /**
+     * Returns True if the simulation runs in fast-forward mode.<p>
+     *
+     * In fast-forward mode the simulation runs as fast as possible without waiting for the length of a tick and skips
+     * all ticks in which nothing happens. Listeners are only notified about the executed ticks.
+     * @return True if the simulation runs in fast-forward mode.
+     */
+    public boolean isFastForward() {
+        return fastForward;
+    }
+
+    /**
+     * Changes the fast-forward mode of this {@link SimulationConfig}.
+     * @param fastForward The new fast-forward mode.
+     */
+    public void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
 }
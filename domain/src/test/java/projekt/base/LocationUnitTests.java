@@ -5,7 +5,9 @@ import org.junit.jupiter.api.Test;
 import projekt.ComparableUnitTests;
 import projekt.ObjectUnitTests;
 
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 import static org.tudalgo.algoutils.student.Student.crash;
@@ -66,4 +68,48 @@ public class LocationUnitTests {
         // TODO: H12.2 - remove if implemented
     }
 
+    @Test
+    public void testKey() {
+        int[] coordinates = {0, 1, -1, 1024, -1024, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        Set<Long> keys = new HashSet<>();
+        for (int x : coordinates) {
+            for (int y : coordinates) {
+                long key = new Location(x, y).toKey();
+                assertEquals(x, Location.x(key));
+                assertEquals(y, Location.y(key));
+                assertEquals(new Location(x, y), Location.ofKey(key));
+                keys.add(key);
+            }
+        }
+        assertEquals(coordinates.length * coordinates.length, keys.size());
+    }
+
+    @Test
+    public void testHashCodeIsUniqueForSmallCoordinates() {
+        Set<Integer> hashes = new HashSet<>();
+        for (int x = -300; x < 300; x++) {
+            for (int y = -300; y < 300; y++) {
+                hashes.add(new Location(x, y).hashCode());
+            }
+        }
+        assertEquals(600 * 600, hashes.size());
+
+        // locations that are 2^16 apart are spread as well
+        assertNotEquals(new Location(0, 0).hashCode(), new Location(1 << 16, 0).hashCode());
+        assertNotEquals(new Location(0, 0).hashCode(), new Location(0, 1 << 16).hashCode());
+    }
+
+    @Test
+    public void testLocationPool() {
+        LocationPool pool = new LocationPool(1);
+        Location location = new Location(3, -4);
+        assertSame(location, pool.intern(location));
+        assertSame(location, pool.intern(new Location(3, -4)));
+        assertSame(location, pool.intern(3, -4));
+        for (int i = 0; i < 1000; i++) {
+            assertSame(pool.intern(i, -i), pool.intern(new Location(i, -i)));
+        }
+        assertEquals(1001, pool.size());
+        assertSame(location, pool.intern(3, -4));
+    }
 }
@@ -0,0 +1,61 @@
+package projekt.delivery.rating;
+
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+import projekt.base.TickInterval;
+import projekt.delivery.event.ArrivedAtNodeEvent;
+import projekt.delivery.event.DeliverOrderEvent;
+import projekt.delivery.routing.ConfirmedOrder;
+import projekt.delivery.routing.DijkstraPathCalculator;
+import projekt.delivery.routing.Region;
+import projekt.delivery.routing.Vehicle;
+import projekt.delivery.routing.VehicleManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TravelDistanceRaterUnitTests {
+
+    @Test
+    public void testWorstDistanceCountsEveryEdge() {
+        Region region = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            // the duration of an edge is its length
+            .durationFunction((a, b) -> Math.abs(b.getX() - a.getX()))
+            .addRestaurant("A", new Location(0, 0), List.of("Pizza"))
+            .addNode("B", new Location(1, 0))
+            .addNode("C", new Location(3, 0))
+            .addNeighborhood("D", new Location(6, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .addEdge("BC", new Location(1, 0), new Location(3, 0))
+            .addEdge("CD", new Location(3, 0), new Location(6, 0))
+            .build();
+        VehicleManager vehicleManager = VehicleManager.builder()
+            .region(region)
+            .pathCalculator(new DijkstraPathCalculator())
+            .addVehicle(new Location(0, 0), 10)
+            .build();
+        vehicleManager.tick(0);
+        Vehicle vehicle = vehicleManager.getVehicles().iterator().next();
+        VehicleManager.OccupiedRestaurant restaurant = vehicleManager.getOccupiedRestaurants().iterator().next();
+        Region.Neighborhood neighborhood = (Region.Neighborhood) region.getNode(new Location(6, 0));
+        ConfirmedOrder order = new ConfirmedOrder(new Location(0, 0), restaurant, new TickInterval(0, 10), List.of("Pizza"), 1);
+        order.setActualDeliveryTick(1);
+
+        Rater rater = TravelDistanceRater.Factory.builder()
+            .setVehicleManager(vehicleManager)
+            .setFactor(0.5)
+            .build()
+            .create();
+        // the worst distance is the round trip over all three edges: 2 * (1 + 2 + 3)
+        rater.onTick(List.of(
+            DeliverOrderEvent.of(1, vehicle, neighborhood, order),
+            ArrivedAtNodeEvent.of(1, vehicle, neighborhood, region.getEdge(new Location(3, 0), new Location(6, 0)))
+        ), 1);
+
+        // the vehicles traveled 3 of the 12 * 0.5 allowed
+        assertEquals(0.5, rater.getScore());
+    }
+}
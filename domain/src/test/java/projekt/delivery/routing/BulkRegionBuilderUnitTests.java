@@ -0,0 +1,159 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkRegionBuilderUnitTests {
+
+    private static final int SIZE = 20;
+
+    @Test
+    public void testBuildsSameRegionAsBuilder() {
+        Region expected = fill(Region.builder()).build();
+        Region actual = fill(Region.bulkBuilder(SIZE * SIZE, 2 * SIZE * SIZE)).build();
+        assertEquals(expected, actual);
+        assertEquals(expected.getEdges().size(), actual.getEdges().size());
+        for (Region.Node node : expected.getNodes()) {
+            Region.Node other = actual.getNode(node.getLocation());
+            assertEquals(node, other);
+            assertEquals(node.getClass(), other.getClass());
+        }
+        for (Region.Edge edge : expected.getEdges()) {
+            Region.Edge other = actual.getEdge(edge.getNodeA().getLocation(), edge.getNodeB().getLocation());
+            assertEquals(edge.getName(), other.getName());
+            assertEquals(edge.getDuration(), other.getDuration());
+        }
+        assertEquals(List.of("pizza"), ((Region.Restaurant) actual.getNode(new Location(0, 0))).getAvailableFood());
+    }
+
+    @Test
+    public void testCachedHashCodes() {
+        Region expected = fill(Region.builder()).build();
+        Region actual = fill(Region.bulkBuilder()).build();
+        assertEquals(expected.hashCode(), actual.hashCode());
+        for (Region.Node node : expected.getNodes()) {
+            assertEquals(Objects.hash(node.getName(), node.getLocation(), ((NodeImpl) node).connections), node.hashCode());
+            assertEquals(node.hashCode(), actual.getNode(node.getLocation()).hashCode());
+        }
+
+        // only the durations of the edges differ
+        Region other = fill(Region.bulkBuilder()).distanceCalculator((a, b) -> 2 * new EuclideanDistanceCalculator().calculateDistance(a, b)).build();
+        assertNotEquals(expected, other);
+        assertEquals(new HashSet<>(expected.getNodes()), new HashSet<>(other.getNodes()));
+    }
+
+    @Test
+    public void testNegativeCoordinates() {
+        Region expected = fillNegative(Region.builder()).build();
+        Region actual = fillNegative(Region.bulkBuilder()).build();
+        assertEquals(expected, actual);
+        for (Region.Edge edge : expected.getEdges()) {
+            Location a = edge.getNodeA().getLocation();
+            Location b = edge.getNodeB().getLocation();
+            assertTrue(a.compareTo(b) < 0);
+            Region.Edge other = actual.getEdge(b, a);
+            assertEquals(edge.getName(), other.getName());
+            assertEquals(a, other.getNodeA().getLocation());
+            assertEquals(b, other.getNodeB().getLocation());
+        }
+        assertFalse(fillNegative(Region.bulkBuilder()).checkEdge("X", new Location(0, -1), new Location(0, 1)));
+    }
+
+    @Test
+    public void testDuplicates() {
+        Region.Builder builder = Region.bulkBuilder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(1, 0))
+            .addEdge("AB", new Location(1, 0), new Location(0, 0));
+
+        assertFalse(builder.checkNode("A", new Location(2, 0)));
+        assertFalse(builder.checkNode("C", new Location(0, 0)));
+        assertTrue(builder.checkNode("C", new Location(2, 0)));
+        assertThrows(IllegalArgumentException.class, () -> builder.addNode("A", new Location(2, 0)));
+        assertThrows(IllegalArgumentException.class, () -> builder.addNode("C", new Location(1, 0)));
+
+        assertFalse(builder.checkEdge("BA", new Location(0, 0), new Location(1, 0)));
+        assertFalse(builder.checkEdge("AC", new Location(0, 0), new Location(2, 0)));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge("BA", new Location(0, 0), new Location(1, 0)));
+
+        // the names of failed additions stay available
+        builder.addNode("C", new Location(2, 0));
+        assertTrue(builder.checkEdge("BA", new Location(1, 0), new Location(2, 0)));
+    }
+
+    @Test
+    public void testRemoveComponent() {
+        Region.Builder builder = Region.bulkBuilder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(1, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0));
+
+        builder.removeComponent("AB");
+        assertTrue(builder.checkEdge("AB", new Location(0, 0), new Location(1, 0)));
+        builder.removeComponent("B");
+        assertThrows(IllegalArgumentException.class, () -> builder.removeComponent("B"));
+
+        builder.addNeighborhood("B2", new Location(1, 0));
+        builder.addEdge("AB2", new Location(0, 0), new Location(1, 0));
+        Region region = builder.build();
+        assertEquals(2, region.getNodes().size());
+        assertInstanceOf(Region.Neighborhood.class, region.getNode(new Location(1, 0)));
+        assertEquals("AB2", region.getEdge(new Location(0, 0), new Location(1, 0)).getName());
+
+        builder.removeComponent("B2");
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    private static Region.Builder fill(Region.Builder builder) {
+        builder.distanceCalculator(new EuclideanDistanceCalculator());
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                Location location = new Location(x, y);
+                if (x == 0 && y == 0) {
+                    builder.addRestaurant("R", location, List.of("pizza"));
+                } else if ((x + y) % 7 == 0) {
+                    builder.addNeighborhood("N" + x + "_" + y, location);
+                } else {
+                    builder.addNode("N" + x + "_" + y, location);
+                }
+                if (x > 0) {
+                    builder.addEdge("H" + x + "_" + y, new Location(x - 1, y), location);
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + x + "_" + y, location, new Location(x, y - 1));
+                }
+            }
+        }
+        return builder;
+    }
+
+    private static Region.Builder fillNegative(Region.Builder builder) {
+        builder.distanceCalculator(new EuclideanDistanceCalculator())
+            .addRestaurant("R", new Location(0, 0), List.of("pizza"));
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -2; y <= 2; y++) {
+                if (x != 0 || y != 0) {
+                    builder.addNode("N" + x + "_" + y, new Location(x, y));
+                }
+            }
+        }
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -2; y < 2; y++) {
+                // alternate the order of the endpoints, also across the sign change of y
+                Location lower = new Location(x, y);
+                Location upper = new Location(x, y + 2 > 2 ? y + 1 : y + 2);
+                builder.addEdge("V" + x + "_" + y, (x & 1) == 0 ? lower : upper, (x & 1) == 0 ? upper : lower);
+            }
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,162 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedPathCalculatorUnitTests {
+
+    private Region region;
+    private Region.Node nodeA;
+    private Region.Node nodeB;
+    private Region.Node nodeC;
+    private Region.Node nodeD;
+
+    @BeforeEach
+    public void initialize() {
+        region = Region.builder()
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(1, 0))
+            .addNode("C", new Location(2, 0))
+            .addNode("D", new Location(3, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .addEdge("BC", new Location(1, 0), new Location(2, 0))
+            .addEdge("CD", new Location(2, 0), new Location(3, 0))
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .build();
+        nodeA = region.getNode(new Location(0, 0));
+        nodeB = region.getNode(new Location(1, 0));
+        nodeC = region.getNode(new Location(2, 0));
+        nodeD = region.getNode(new Location(3, 0));
+    }
+
+    @Test
+    public void testStatistics() {
+        CachedPathCalculator pathCalculator = new CachedPathCalculator(new CompiledDijkstraPathCalculator());
+        pathCalculator.getPath(nodeA, nodeD);
+        pathCalculator.getPath(nodeB, nodeD);
+        pathCalculator.getAllPathsTo(nodeD);
+        pathCalculator.getPath(nodeD, nodeA);
+
+        CachedPathCalculator.Statistics statistics = pathCalculator.getStatistics();
+        assertEquals(2, statistics.hitCount());
+        assertEquals(2, statistics.missCount());
+        assertEquals(0, statistics.evictionCount());
+        assertEquals(0.5, statistics.hitRate());
+    }
+
+    @Test
+    public void testWarmUp() {
+        CachedPathCalculator pathCalculator = new CachedPathCalculator(new CompiledDijkstraPathCalculator());
+        pathCalculator.warmUp(List.of(nodeA, nodeB, nodeC, nodeD));
+        assertEquals(4, pathCalculator.getStatistics().missCount());
+
+        pathCalculator.getPath(nodeA, nodeD);
+        pathCalculator.getPath(nodeD, nodeB);
+        assertEquals(2, pathCalculator.getStatistics().hitCount());
+        assertEquals(4, pathCalculator.getStatistics().missCount());
+    }
+
+    @Test
+    public void testWarmUpDoesNotEvict() {
+        // more end nodes than the cache can hold, its segments only hold a single end node each
+        Region.Builder builder = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addRestaurant("R", new Location(0, 0), List.of("Pizza"));
+        for (int x = 1; x <= 40; x++) {
+            builder.addNeighborhood("N" + x, new Location(x, 0))
+                .addEdge("E" + x, new Location(x - 1, 0), new Location(x, 0));
+        }
+        CachedPathCalculator pathCalculator = new CachedPathCalculator(new CompiledDijkstraPathCalculator(), 16);
+        pathCalculator.warmUp(builder.build());
+        long missCount = pathCalculator.getStatistics().missCount();
+        assertTrue(missCount > 0 && missCount <= 16);
+        assertEquals(0, pathCalculator.getStatistics().evictionCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        CachedPathCalculator pathCalculator = new CachedPathCalculator(new CompiledDijkstraPathCalculator(), 1);
+        pathCalculator.getAllPathsTo(nodeA);
+        pathCalculator.getAllPathsTo(nodeA);
+        pathCalculator.getAllPathsTo(nodeB);
+        pathCalculator.getAllPathsTo(nodeA);
+
+        CachedPathCalculator.Statistics statistics = pathCalculator.getStatistics();
+        assertEquals(1, statistics.hitCount());
+        assertEquals(3, statistics.missCount());
+        assertEquals(2, statistics.evictionCount());
+    }
+
+    @Test
+    public void testModifiedPathDoesNotChangeCache() {
+        for (CachedPathCalculator.Mode mode : CachedPathCalculator.Mode.values()) {
+            testModifiedPathDoesNotChangeCache(new CachedPathCalculator(new CompiledDijkstraPathCalculator(), 16, mode));
+            testModifiedPathDoesNotChangeCache(new CachedPathCalculator(new DijkstraPathCalculator(), 16, mode));
+        }
+    }
+
+    @Test
+    public void testPathViews() {
+        CachedPathCalculator pathCalculator = new CachedPathCalculator(new CompiledDijkstraPathCalculator());
+        Deque<Region.Node> path = pathCalculator.getPath(nodeA, nodeD);
+        assertEquals(3, path.size());
+        assertEquals(nodeB, path.getFirst());
+        assertEquals(nodeD, path.getLast());
+        assertEquals(nodeD, path.removeLast());
+        assertEquals(List.of(nodeB, nodeC), List.copyOf(path));
+
+        Map<Region.Node, Deque<Region.Node>> paths = pathCalculator.getAllPathsTo(nodeA);
+        assertEquals(4, paths.size());
+        assertEquals(Set.of(nodeA, nodeB, nodeC, nodeD), paths.keySet());
+        assertTrue(paths.get(nodeA).isEmpty());
+        assertEquals(List.of(nodeB, nodeA), List.copyOf(paths.get(nodeC)));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        for (CachedPathCalculator.Mode mode : CachedPathCalculator.Mode.values()) {
+            CachedPathCalculator pathCalculator = new CachedPathCalculator(new CompiledDijkstraPathCalculator(), 16, mode);
+            Deque<Region.Node> path = pathCalculator.getPath(nodeA, nodeD);
+            Iterator<Region.Node> iterator = path.iterator();
+            assertThrows(IllegalStateException.class, iterator::remove);
+            assertEquals(nodeB, iterator.next());
+            assertEquals(nodeC, iterator.next());
+            iterator.remove();
+            assertThrows(IllegalStateException.class, iterator::remove);
+            assertEquals(nodeD, iterator.next());
+            assertFalse(iterator.hasNext());
+            assertEquals(List.of(nodeB, nodeD), List.copyOf(path));
+
+            Deque<Region.Node> reversed = pathCalculator.getPath(nodeA, nodeD);
+            Iterator<Region.Node> descendingIterator = reversed.descendingIterator();
+            assertEquals(nodeD, descendingIterator.next());
+            descendingIterator.remove();
+            assertEquals(nodeC, descendingIterator.next());
+            assertEquals(List.of(nodeB, nodeC), List.copyOf(reversed));
+
+            assertEquals(List.of(nodeB, nodeC, nodeD), List.copyOf(pathCalculator.getPath(nodeA, nodeD)));
+        }
+    }
+
+    private void testModifiedPathDoesNotChangeCache(CachedPathCalculator pathCalculator) {
+        Deque<Region.Node> path = pathCalculator.getPath(nodeA, nodeD);
+        assertEquals(List.of(nodeB, nodeC, nodeD), List.copyOf(path));
+
+        assertEquals(nodeB, path.pop());
+        path.addLast(nodeA);
+        assertEquals(List.of(nodeC, nodeD, nodeA), List.copyOf(path));
+
+        assertEquals(List.of(nodeB, nodeC, nodeD), List.copyOf(pathCalculator.getPath(nodeA, nodeD)));
+        assertEquals(List.of(nodeC, nodeD), List.copyOf(pathCalculator.getAllPathsTo(nodeD).get(nodeB)));
+    }
+}
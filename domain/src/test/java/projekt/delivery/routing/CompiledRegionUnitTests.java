@@ -0,0 +1,88 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledRegionUnitTests {
+
+    private static final int SIZE = 4;
+
+    private Region region;
+    private CompiledRegion graph;
+
+    @BeforeEach
+    public void initialize() {
+        Region.Builder builder = Region.builder().distanceCalculator(new EuclideanDistanceCalculator());
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                builder.addNode("N" + x + "_" + y, new Location(x, y));
+                if (x > 0) {
+                    builder.addEdge("H" + x + "_" + y, new Location(x - 1, y), new Location(x, y));
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + x + "_" + y, new Location(x, y - 1), new Location(x, y));
+                }
+            }
+        }
+        region = builder.build();
+        graph = CompiledRegion.of(region);
+    }
+
+    @Test
+    public void testNodes() {
+        assertEquals(region.getNodes().size(), graph.nodeCount());
+        for (Region.Node node : region.getNodes()) {
+            int id = graph.requireId(node);
+            assertSame(node, graph.node(id));
+            assertEquals(id, graph.idOf(node.getLocation()));
+            assertEquals(node.getLocation().getX(), graph.x(id));
+            assertEquals(node.getLocation().getY(), graph.y(id));
+            assertEquals(node.getAdjacentEdges().size(), graph.degree(id));
+        }
+        assertEquals(-1, graph.idOf(new Location(SIZE, SIZE)));
+    }
+
+    @Test
+    public void testEdges() {
+        assertEquals(region.getEdges().size(), graph.edgeCount());
+        for (Region.Edge edge : region.getEdges()) {
+            int id = graph.requireEdgeId(edge);
+            assertSame(edge, graph.edge(id));
+            assertSame(edge.getNodeA(), graph.node(graph.edgeNodeA(id)));
+            assertSame(edge.getNodeB(), graph.node(graph.edgeNodeB(id)));
+            assertEquals(edge.getDuration(), graph.edgeDuration(id));
+        }
+        assertEquals(-1, graph.edgeIdOf(Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(0, 1))
+            .addEdge("AB", new Location(0, 0), new Location(0, 1))
+            .build()
+            .getEdges()
+            .iterator()
+            .next()));
+    }
+
+    @Test
+    public void testArcs() {
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            Set<Region.Node> targets = new HashSet<>();
+            for (int arc = graph.firstArc(node); arc < graph.firstArc(node + 1); arc++) {
+                int edge = graph.arcEdge(arc);
+                int target = graph.arcTarget(arc);
+                assertTrue(graph.edgeNodeA(edge) == node && graph.edgeNodeB(edge) == target
+                    || graph.edgeNodeB(edge) == node && graph.edgeNodeA(edge) == target);
+                assertEquals(graph.edgeDuration(edge), graph.arcDuration(arc));
+                targets.add(graph.node(target));
+            }
+            assertEquals(graph.node(node).getAdjacentNodes(), targets);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomizablePathCalculatorUnitTests {
+
+    private static final int SIZE = 8;
+
+    private Region region;
+    private RegionOverlay overlay;
+
+    @BeforeEach
+    public void initialize() {
+        Region.Builder builder = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            // horizontal streets are twice as slow as vertical ones
+            .durationFunction((a, b) -> a.getY() == b.getY() ? 2 : 1);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                builder.addNode("N" + x + "_" + y, new Location(x, y));
+                if (x > 0) {
+                    builder.addEdge("H" + x + "_" + y, new Location(x - 1, y), new Location(x, y));
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + x + "_" + y, new Location(x, y - 1), new Location(x, y));
+                }
+            }
+        }
+        region = builder.build();
+        overlay = new RegionOverlay(region);
+    }
+
+    @Test
+    public void testDurationFunction() {
+        assertEquals(2, region.getEdge(new Location(0, 0), new Location(1, 0)).getDuration());
+        assertEquals(1, region.getEdge(new Location(0, 0), new Location(0, 1)).getDuration());
+        assertThrows(IllegalArgumentException.class, () -> Region.bulkBuilder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .durationFunction((a, b) -> -1)
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(1, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .build());
+    }
+
+    @Test
+    public void testCustomizedPathsMatchDijkstra() {
+        CustomizablePathCalculator pathCalculator = new CustomizablePathCalculator(overlay, 6);
+        assertTrue(pathCalculator.getPartition().cellCount() > 4);
+        List<Region.Node> nodes = List.copyOf(region.getNodes());
+
+        Random random = new Random(42);
+        for (int profile = 0; profile < 10; profile++) {
+            if (profile % 2 == 0) {
+                overlay.setDurations(edge -> 1 + random.nextInt(20));
+            } else {
+                List<Region.Edge> edges = List.copyOf(region.getEdges());
+                overlay.setDuration(edges.get(random.nextInt(edges.size())), 1000);
+            }
+            pathCalculator.customize();
+
+            try (DynamicPathCalculator reference = new DynamicPathCalculator(overlay)) {
+                for (Region.Node end : nodes) {
+                    Map<Region.Node, Deque<Region.Node>> paths = pathCalculator.getAllPathsTo(end);
+                    for (Region.Node start : nodes) {
+                        long expected = reference.getDistance(start, end);
+                        assertEquals(expected, pathCalculator.getDistance(start, end));
+                        assertEquals(expected, duration(start, pathCalculator.getPath(start, end)));
+                        assertEquals(expected, duration(start, paths.get(start)));
+                    }
+                }
+                assertTrue(Arrays.deepEquals(reference.getDistanceTable(nodes, nodes), pathCalculator.getDistanceTable(nodes, nodes)));
+            }
+        }
+        pathCalculator.close();
+        assertFalse(overlay.hasListeners());
+    }
+
+    @Test
+    public void testClose() {
+        CustomizablePathCalculator pathCalculator = new CustomizablePathCalculator(overlay, 6);
+        Region.Node start = region.getNode(new Location(0, 0));
+        Region.Node end = region.getNode(new Location(1, 0));
+        pathCalculator.getDistance(start, end);
+        pathCalculator.close();
+        pathCalculator.close();
+        assertFalse(overlay.hasListeners());
+        assertThrows(IllegalStateException.class, () -> pathCalculator.getDistance(start, end));
+        assertThrows(IllegalStateException.class, () -> pathCalculator.getPath(start, end));
+        assertThrows(IllegalStateException.class, () -> pathCalculator.getAllPathsTo(end));
+        assertThrows(IllegalStateException.class, pathCalculator::customize);
+
+        // the overlay can still be changed without the closed calculator
+        overlay.setDuration(start.getEdge(end), 1000);
+        assertEquals(1000, overlay.getDuration(start.getEdge(end)));
+    }
+
+    @Test
+    public void testUnreachableNode() {
+        Region region = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(1, 0))
+            .build();
+        CustomizablePathCalculator pathCalculator = new CustomizablePathCalculator(new RegionOverlay(region), 1);
+        Region.Node a = region.getNode(new Location(0, 0));
+        Region.Node b = region.getNode(new Location(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> pathCalculator.getPath(a, b));
+        assertEquals(List.of(), List.copyOf(pathCalculator.getPath(a, a)));
+        assertNull(pathCalculator.getAllPathsTo(b).get(a));
+    }
+
+    private long duration(Region.Node start, Deque<Region.Node> path) {
+        long duration = 0;
+        Region.Node previous = start;
+        for (Region.Node node : path) {
+            duration += overlay.getDuration(previous.getEdge(node));
+            previous = node;
+        }
+        return duration;
+    }
+}
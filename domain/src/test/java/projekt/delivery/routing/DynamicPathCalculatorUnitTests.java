@@ -0,0 +1,113 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicPathCalculatorUnitTests {
+
+    private static final int SIZE = 5;
+
+    private Region region;
+    private RegionOverlay overlay;
+
+    @BeforeEach
+    public void initialize() {
+        Region.Builder builder = Region.builder().distanceCalculator(new EuclideanDistanceCalculator());
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                builder.addNode("N" + x + "_" + y, new Location(x, y));
+                if (x > 0) {
+                    builder.addEdge("H" + x + "_" + y, new Location(x - 1, y), new Location(x, y));
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + x + "_" + y, new Location(x, y - 1), new Location(x, y));
+                }
+            }
+        }
+        region = builder.build();
+        overlay = new RegionOverlay(region);
+    }
+
+    @Test
+    public void testRepairedTreesMatchNewTrees() {
+        DynamicPathCalculator pathCalculator = new DynamicPathCalculator(overlay);
+        List<Region.Node> nodes = List.copyOf(region.getNodes());
+        List<Region.Edge> edges = List.copyOf(region.getEdges());
+        for (Region.Node end : nodes) {
+            pathCalculator.getAllPathsTo(end);
+        }
+
+        Random random = new Random(42);
+        for (int change = 0; change < 100; change++) {
+            overlay.setDuration(edges.get(random.nextInt(edges.size())), 1 + random.nextInt(20));
+
+            try (DynamicPathCalculator reference = new DynamicPathCalculator(overlay)) {
+                for (Region.Node end : nodes) {
+                    Map<Region.Node, Deque<Region.Node>> paths = pathCalculator.getAllPathsTo(end);
+                    for (Region.Node start : nodes) {
+                        long expected = reference.getDistance(start, end);
+                        assertEquals(expected, pathCalculator.getDistance(start, end));
+                        assertEquals(expected, duration(start, paths.get(start)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testClosedEdge() {
+        DynamicPathCalculator pathCalculator = new DynamicPathCalculator(overlay);
+        Region.Node start = region.getNode(new Location(0, 0));
+        Region.Node end = region.getNode(new Location(1, 0));
+        assertEquals(List.of(end), List.copyOf(pathCalculator.getPath(start, end)));
+
+        Region.Edge edge = start.getEdge(end);
+        overlay.setDuration(edge, 1000);
+        assertEquals(3 * region.getNode(new Location(0, 1)).getEdge(start).getDuration(),
+            pathCalculator.getDistance(start, end));
+        assertEquals(3, pathCalculator.getPath(start, end).size());
+
+        overlay.resetDuration(edge);
+        assertEquals(edge.getDuration(), pathCalculator.getDistance(start, end));
+    }
+
+    @Test
+    public void testClose() {
+        DynamicPathCalculator pathCalculator = new DynamicPathCalculator(overlay);
+        Region.Node start = region.getNode(new Location(0, 0));
+        Region.Node end = region.getNode(new Location(1, 0));
+        pathCalculator.getAllPathsTo(end);
+        pathCalculator.close();
+        pathCalculator.close();
+        assertFalse(overlay.hasListeners());
+        assertThrows(IllegalStateException.class, () -> pathCalculator.getDistance(start, end));
+        assertThrows(IllegalStateException.class, () -> pathCalculator.getAllPathsTo(end));
+
+        // the overlay can still be changed and used by other calculators
+        overlay.setDuration(start.getEdge(end), 1000);
+        try (DynamicPathCalculator other = new DynamicPathCalculator(overlay)) {
+            assertTrue(overlay.hasListeners());
+            assertEquals(3, other.getPath(start, end).size());
+        }
+        assertFalse(overlay.hasListeners());
+    }
+
+    private long duration(Region.Node start, Deque<Region.Node> path) {
+        long duration = 0;
+        Region.Node previous = start;
+        for (Region.Node node : path) {
+            duration += overlay.getDuration(previous.getEdge(node));
+            previous = node;
+        }
+        return duration;
+    }
+}
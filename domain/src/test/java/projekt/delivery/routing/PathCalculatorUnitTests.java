@@ -0,0 +1,222 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PathCalculatorUnitTests {
+
+    private static final List<Supplier<PathCalculator>> PATH_CALCULATORS = List.of(
+        CompiledDijkstraPathCalculator::new,
+        AStarPathCalculator::new,
+        BidirectionalAStarPathCalculator::new,
+        ContractionHierarchyPathCalculator::new,
+        DistanceMatrixPathCalculator::new,
+        () -> new CachedPathCalculator(new CompiledDijkstraPathCalculator(), 16, CachedPathCalculator.Mode.ALL_PATHS),
+        () -> new CachedPathCalculator(new CompiledDijkstraPathCalculator(), 16, CachedPathCalculator.Mode.PATH_TREES),
+        () -> new CachedPathCalculator(new DijkstraPathCalculator(), 16, CachedPathCalculator.Mode.PATH_TREES)
+    );
+
+    private static Region region;
+    private static PathCalculator reference;
+
+    @BeforeAll
+    public static void initialize() {
+        region = Region.builder()
+            .addNeighborhood("Wiesbaden", new Location(-9, -4))
+            .addNeighborhood("Mainz", new Location(-8, 0))
+            .addNeighborhood("Frankfurt", new Location(8, -8))
+            .addNeighborhood("Darmstadt", new Location(6, 8))
+            .addNeighborhood("Ruesselsheim", new Location(-2, 0))
+            .addNeighborhood("Gross-Gerau", new Location(0, 5))
+            .addNeighborhood("Langen", new Location(6, 0))
+            .addNeighborhood("Offenbach", new Location(10, -7))
+            .addRestaurant(new Location(3, -1), Region.Restaurant.LOS_FOPBOTS_HERMANOS)
+            .addNode("Mainspitzdreieck", new Location(-5, 0))
+            .addNode("Wiesbadener Kreuz", new Location(-4, -5))
+            .addNode("Moenchhof-Dreieck", new Location(1, -2))
+            .addNode("Frankfurter Kreuz", new Location(4, -4))
+            .addNode("Dreieck Mainz", new Location(-10, -1))
+            .addEdge("A643", new Location(-10, -1), new Location(-9, -4))
+            .addEdge("A60", new Location(-10, -1), new Location(-8, 0))
+            .addEdge("A60_1", new Location(-5, 0), new Location(-8, 0))
+            .addEdge("A671", new Location(-5, 0), new Location(-9, -4))
+            .addEdge("A60_2", new Location(-5, 0), new Location(-2, 0))
+            .addEdge("A66", new Location(-4, -5), new Location(-9, -4))
+            .addEdge("A66_1", new Location(-4, -5), new Location(8, -8))
+            .addEdge("A3", new Location(-4, -5), new Location(1, -2))
+            .addEdge("A67", new Location(1, -2), new Location(-2, 0))
+            .addEdge("A3_1", new Location(1, -2), new Location(4, -4))
+            .addEdge("A5", new Location(4, -4), new Location(8, -8))
+            .addEdge("A3_2", new Location(4, -4), new Location(10, -7))
+            .addEdge("A5_1", new Location(4, -4), new Location(6, 0))
+            .addEdge("A5_2", new Location(6, 0), new Location(6, 8))
+            .addEdge("A67_1", new Location(0, 5), new Location(6, 8))
+            .addEdge("A67_2", new Location(0, 5), new Location(-2, 0))
+            .addEdge("FOP-Street", new Location(3, -1), new Location(1, -2))
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .build();
+        reference = new DijkstraPathCalculator();
+    }
+
+    @Test
+    public void testGetPath() {
+        for (Supplier<PathCalculator> supplier : PATH_CALCULATORS) {
+            PathCalculator pathCalculator = supplier.get();
+            for (Region.Node start : region.getNodes()) {
+                for (Region.Node end : region.getNodes()) {
+                    Deque<Region.Node> path = pathCalculator.getPath(start, end);
+                    assertEquals(duration(start, reference.getPath(start, end)), duration(start, path),
+                        "%s: %s -> %s".formatted(pathCalculator.getClass().getSimpleName(), start.getName(), end.getName()));
+                    if (start != end) {
+                        assertEquals(end, path.getLast());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetAllPathsTo() {
+        for (Supplier<PathCalculator> supplier : PATH_CALCULATORS) {
+            PathCalculator pathCalculator = supplier.get();
+            for (Region.Node end : region.getNodes()) {
+                Map<Region.Node, Deque<Region.Node>> paths = pathCalculator.getAllPathsTo(end);
+                assertEquals(region.getNodes().size(), paths.size());
+                for (Region.Node start : region.getNodes()) {
+                    assertEquals(duration(start, reference.getPath(start, end)), duration(start, paths.get(start)),
+                        "%s: %s -> %s".formatted(pathCalculator.getClass().getSimpleName(), start.getName(), end.getName()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetDistance() {
+        for (Supplier<PathCalculator> supplier : PATH_CALCULATORS) {
+            PathCalculator pathCalculator = supplier.get();
+            for (Region.Node start : region.getNodes()) {
+                for (Region.Node end : region.getNodes()) {
+                    assertEquals(duration(start, reference.getPath(start, end)), pathCalculator.getDistance(start, end),
+                        "%s: %s -> %s".formatted(pathCalculator.getClass().getSimpleName(), start.getName(), end.getName()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetDistanceTable() {
+        List<Region.Node> nodes = List.copyOf(region.getNodes());
+        List<Region.Node> few = nodes.subList(0, 3);
+        for (Supplier<PathCalculator> supplier : PATH_CALCULATORS) {
+            PathCalculator pathCalculator = supplier.get();
+            assertDistanceTable(pathCalculator, nodes, few);
+            assertDistanceTable(pathCalculator, few, nodes);
+            assertDistanceTable(pathCalculator, nodes, nodes);
+            assertEquals(0, pathCalculator.getDistanceTable(List.of(), nodes).length);
+        }
+    }
+
+    private static void assertDistanceTable(PathCalculator pathCalculator, List<Region.Node> sources, List<Region.Node> targets) {
+        long[][] table = pathCalculator.getDistanceTable(sources, targets);
+        assertEquals(sources.size(), table.length);
+        for (int i = 0; i < sources.size(); i++) {
+            assertEquals(targets.size(), table[i].length);
+            for (int j = 0; j < targets.size(); j++) {
+                assertEquals(duration(sources.get(i), reference.getPath(sources.get(i), targets.get(j))), table[i][j],
+                    "%s: %s -> %s".formatted(pathCalculator.getClass().getSimpleName(), sources.get(i).getName(), targets.get(j).getName()));
+            }
+        }
+    }
+
+    @Test
+    public void testContractionHierarchyFile() throws IOException {
+        Path file = Files.createTempFile("region", ".ch");
+        try {
+            Files.delete(file);
+            new ContractionHierarchyPathCalculator(file).preprocess(region);
+            assertTrue(Files.size(file) > 0);
+
+            PathCalculator loaded = new ContractionHierarchyPathCalculator(file);
+            for (Region.Node start : region.getNodes()) {
+                for (Region.Node end : region.getNodes()) {
+                    assertEquals(duration(start, reference.getPath(start, end)), duration(start, loaded.getPath(start, end)));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testCorruptContractionHierarchyFile() throws IOException {
+        Path file = Files.createTempFile("region", ".ch");
+        try {
+            Files.delete(file);
+            new ContractionHierarchyPathCalculator(file).preprocess(region);
+            byte[] saved = Files.readAllBytes(file);
+
+            // a negative arc count of the first node, after the header and the locations of all nodes
+            byte[] negativeCount = saved.clone();
+            ByteBuffer.wrap(negativeCount).putInt(16 + 8 * region.getNodes().size(), -1);
+            byte[] truncated = Arrays.copyOf(saved, saved.length - 6);
+            for (byte[] corrupt : List.of(negativeCount, truncated)) {
+                Files.write(file, corrupt);
+                PathCalculator loaded = new ContractionHierarchyPathCalculator(file);
+                for (Region.Node start : region.getNodes()) {
+                    for (Region.Node end : region.getNodes()) {
+                        assertEquals(duration(start, reference.getPath(start, end)), duration(start, loaded.getPath(start, end)));
+                    }
+                }
+                // the hierarchy was built again and saved
+                assertTrue(Arrays.equals(saved, Files.readAllBytes(file)));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testContractionHierarchySaveFailure() throws IOException {
+        Path directory = Files.createTempDirectory("region");
+        try {
+            ContractionHierarchyPathCalculator pathCalculator =
+                new ContractionHierarchyPathCalculator(directory.resolve("missing").resolve("region.ch"));
+            assertThrows(UncheckedIOException.class, () -> pathCalculator.preprocess(region));
+            // the hierarchy is still used
+            Region.Node start = region.getNodes().iterator().next();
+            for (Region.Node end : region.getNodes()) {
+                assertEquals(duration(start, reference.getPath(start, end)), duration(start, pathCalculator.getPath(start, end)));
+            }
+            assertThrows(UncheckedIOException.class, () -> pathCalculator.setHierarchyFile(directory));
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static long duration(Region.Node start, Deque<Region.Node> path) {
+        long duration = 0;
+        Region.Node previous = start;
+        for (Region.Node node : path) {
+            Region.Edge edge = previous.getEdge(node);
+            assertNotNull(edge);
+            duration += edge.getDuration();
+            previous = node;
+        }
+        return duration;
+    }
+}
@@ -0,0 +1,61 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegionEdgeIndexUnitTests {
+
+    @Test
+    public void testEdgesWithSameLowerEndpoint() {
+        Location center = new Location(0, 0);
+        Location[] others = {new Location(1, 0), new Location(0, 1), new Location(2, 3), new Location(1, -1)};
+        Region.Builder builder = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addNode("C", center);
+        for (int i = 0; i < others.length; i++) {
+            assertTrue(center.compareTo(others[i]) < 0);
+            // alternate the order of the endpoints when adding
+            builder.addNode("N" + i, others[i])
+                .addEdge("E" + i, i % 2 == 0 ? center : others[i], i % 2 == 0 ? others[i] : center);
+        }
+        Region region = builder.build();
+
+        for (int i = 0; i < others.length; i++) {
+            Region.Edge edge = region.getEdge(center, others[i]);
+            assertNotNull(edge);
+            assertEquals("E" + i, edge.getName());
+            assertSame(edge, region.getEdge(others[i], center));
+        }
+        assertNull(region.getEdge(center, new Location(3, 3)));
+        assertNull(region.getEdge(others[0], others[1]));
+    }
+
+    @Test
+    public void testAdjacentSetsAreUnmodifiable() {
+        Region region = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .addNode("A", new Location(0, 0))
+            .addNode("B", new Location(1, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .build();
+        NodeImpl node = (NodeImpl) region.getNode(new Location(0, 0));
+        Region.Node other = region.getNode(new Location(1, 0));
+        Region.Edge edge = region.getEdge(new Location(0, 0), new Location(1, 0));
+
+        // the indexed sets of the frozen region and the scanned sets of an unfrozen one
+        for (boolean frozen : new boolean[] {true, false}) {
+            if (!frozen) {
+                node.unfreeze();
+            }
+            assertEquals(Set.of(other), node.getAdjacentNodes());
+            assertEquals(Set.of(edge), node.getAdjacentEdges());
+            assertThrows(UnsupportedOperationException.class, () -> node.getAdjacentNodes().add(node));
+            assertThrows(UnsupportedOperationException.class, () -> node.getAdjacentEdges().remove(edge));
+        }
+    }
+}
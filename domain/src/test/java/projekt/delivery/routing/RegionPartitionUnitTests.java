@@ -0,0 +1,118 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegionPartitionUnitTests {
+
+    private static final int CITY_SIZE = 8;
+
+    @Test
+    public void testSplitsCitiesAlongHighways() {
+        Region.Builder builder = Region.builder().distanceCalculator(new EuclideanDistanceCalculator());
+        addCity(builder, 0, 0);
+        addCity(builder, 20, 0);
+        builder.addEdge("A1", new Location(CITY_SIZE - 1, 0), new Location(20, 0));
+        builder.addEdge("A2", new Location(CITY_SIZE - 1, CITY_SIZE - 1), new Location(20, CITY_SIZE - 1));
+        Region region = builder.build();
+
+        RegionPartition partition = RegionPartition.of(region, CITY_SIZE * CITY_SIZE);
+        CompiledRegion graph = partition.getCompiledRegion();
+        assertEquals(2, partition.cellCount());
+        assertEquals(2, partition.cutEdges().length);
+        for (int edge : partition.cutEdges()) {
+            assertTrue(graph.edge(edge).getName().startsWith("A"));
+            assertTrue(partition.isCutEdge(edge));
+        }
+        int west = partition.cellOf(new Location(0, 0));
+        assertEquals(0, partition.minX(west));
+        assertEquals(CITY_SIZE - 1, partition.maxX(west));
+        assertEquals(CITY_SIZE - 1, partition.maxY(west));
+        assertNotEquals(west, partition.cellOf(region.getNode(new Location(20, 0))));
+        assertEquals(2, partition.boundaryNodesOf(west).length);
+        assertEquals(-1, partition.cellOf(new Location(10, 0)));
+    }
+
+    @Test
+    public void testCellsCoverRegion() {
+        Random random = new Random(42);
+        Region.Builder builder = Region.builder().distanceCalculator(new EuclideanDistanceCalculator());
+        for (int i = 0; i < 300; i++) {
+            Location location = new Location(random.nextInt(-40, 40), random.nextInt(-40, 40));
+            if (builder.checkNode("N" + i, location)) {
+                builder.addNode("N" + i, location);
+            }
+        }
+        Region withoutEdges = builder.build();
+        Location[] locations = withoutEdges.getNodes().stream().map(Region.Node::getLocation).toArray(Location[]::new);
+        for (int i = 0; i < 600; i++) {
+            Location a = locations[random.nextInt(locations.length)];
+            Location b = locations[random.nextInt(locations.length)];
+            if (builder.checkEdge("E" + i, a, b)) {
+                builder.addEdge("E" + i, a, b);
+            }
+        }
+        Region region = builder.build();
+
+        for (int maxCellSize : new int[] {1, 7, 50, 1000}) {
+            RegionPartition partition = RegionPartition.of(region, maxCellSize);
+            CompiledRegion graph = partition.getCompiledRegion();
+            Set<Region.Node> nodes = new HashSet<>();
+            for (int cell = 0; cell < partition.cellCount(); cell++) {
+                assertTrue(partition.cellSize(cell) > 0);
+                assertTrue(partition.cellSize(cell) <= maxCellSize);
+                for (int id : partition.nodesOf(cell)) {
+                    assertEquals(cell, partition.cellOf(id));
+                    assertTrue(graph.x(id) >= partition.minX(cell) && graph.x(id) <= partition.maxX(cell));
+                    assertTrue(graph.y(id) >= partition.minY(cell) && graph.y(id) <= partition.maxY(cell));
+                }
+                assertEquals(partition.cellSize(cell), partition.getNodes(cell).size());
+                nodes.addAll(partition.getNodes(cell));
+            }
+            assertEquals(new HashSet<>(region.getNodes()), nodes);
+
+            int cutEdges = 0;
+            boolean[] boundary = new boolean[graph.nodeCount()];
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                int a = graph.edgeNodeA(edge);
+                int b = graph.edgeNodeB(edge);
+                if (partition.cellOf(a) != partition.cellOf(b)) {
+                    cutEdges++;
+                    boundary[a] = boundary[b] = true;
+                }
+                assertEquals(partition.cellOf(a), partition.cellOf(graph.edge(edge)));
+            }
+            assertEquals(cutEdges, partition.cutEdges().length);
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                int id = node;
+                assertEquals(boundary[id], partition.isBoundaryNode(id));
+                int cell = partition.cellOf(id);
+                assertEquals(boundary[id], Arrays.stream(partition.boundaryNodesOf(cell)).anyMatch(other -> other == id));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> RegionPartition.of(region, 0));
+    }
+
+    private static void addCity(Region.Builder builder, int offsetX, int offsetY) {
+        for (int x = 0; x < CITY_SIZE; x++) {
+            for (int y = 0; y < CITY_SIZE; y++) {
+                Location location = new Location(offsetX + x, offsetY + y);
+                builder.addNode("N" + location, location);
+                if (x > 0) {
+                    builder.addEdge("H" + location, new Location(offsetX + x - 1, offsetY + y), location);
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + location, new Location(offsetX + x, offsetY + y - 1), location);
+                }
+            }
+        }
+    }
+}
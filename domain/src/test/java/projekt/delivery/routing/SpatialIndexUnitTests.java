@@ -0,0 +1,84 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.Test;
+import projekt.base.ChessboardDistanceCalculator;
+import projekt.base.DistanceCalculator;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+import projekt.base.ManhattanDistanceCalculator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialIndexUnitTests {
+
+    private static final List<DistanceCalculator> DISTANCE_CALCULATORS = List.of(
+        new EuclideanDistanceCalculator(),
+        new ManhattanDistanceCalculator(),
+        new ChessboardDistanceCalculator(),
+        (a, b) -> Math.abs(a.getX() - b.getX()) + 2 * Math.abs(a.getY() - b.getY())
+    );
+
+    @Test
+    public void testQueriesMatchLinearScan() {
+        for (DistanceCalculator distanceCalculator : DISTANCE_CALCULATORS) {
+            Region region = randomRegion(distanceCalculator, new Random(42));
+            SpatialIndex index = region.getSpatialIndex();
+            assertSame(index, region.getSpatialIndex());
+            assertEquals(region.getNodes().size(), index.size());
+
+            Random random = new Random(7);
+            for (int query = 0; query < 200; query++) {
+                Location location = new Location(random.nextInt(-60, 60), random.nextInt(-60, 60));
+                Comparator<Region.Node> order = Comparator
+                    .comparingDouble((Region.Node node) -> distanceCalculator.calculateDistance(location, node.getLocation()))
+                    .thenComparing(Region.Node::getLocation);
+                List<Region.Node> sorted = region.getNodes().stream().sorted(order).toList();
+
+                int k = random.nextInt(1, 20);
+                assertEquals(sorted.subList(0, k), index.nearest(location, k));
+                assertEquals(sorted.get(0), index.nearest(location));
+
+                double radius = random.nextInt(30);
+                assertEquals(
+                    sorted.stream().filter(node -> distanceCalculator.calculateDistance(location, node.getLocation()) <= radius).toList(),
+                    index.withinRadius(location, radius)
+                );
+
+                List<Region.Restaurant> restaurants = sorted.stream()
+                    .filter(Region.Restaurant.class::isInstance)
+                    .map(Region.Restaurant.class::cast)
+                    .toList();
+                assertEquals(restaurants.subList(0, Math.min(3, restaurants.size())),
+                    index.nearest(location, 3, Region.Restaurant.class));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyRegion() {
+        SpatialIndex index = Region.builder().distanceCalculator(new EuclideanDistanceCalculator()).build().getSpatialIndex();
+        assertNull(index.nearest(new Location(0, 0)));
+        assertEquals(List.of(), index.nearest(new Location(0, 0), 5));
+        assertEquals(List.of(), index.withinRadius(new Location(0, 0), 100));
+        assertThrows(IllegalArgumentException.class, () -> index.nearest(new Location(0, 0), -1));
+    }
+
+    private static Region randomRegion(DistanceCalculator distanceCalculator, Random random) {
+        Region.Builder builder = Region.builder().distanceCalculator(distanceCalculator);
+        for (int i = 0; i < 500; i++) {
+            Location location = new Location(random.nextInt(-50, 50), random.nextInt(-50, 50));
+            if (builder.checkNode("N" + i, location)) {
+                if (i % 10 == 0) {
+                    builder.addRestaurant("N" + i, location, List.of());
+                } else {
+                    builder.addNode("N" + i, location);
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,122 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeDependentPathCalculatorUnitTests {
+
+    private static final int SIZE = 6;
+    private static final long DAY = 24;
+
+    private Region region;
+
+    @BeforeEach
+    public void initialize() {
+        Region.Builder builder = Region.builder().distanceCalculator(new EuclideanDistanceCalculator());
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                builder.addNode("N" + x + "_" + y, new Location(x, y));
+                if (x > 0) {
+                    builder.addEdge("H" + x + "_" + y, new Location(x - 1, y), new Location(x, y));
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + x + "_" + y, new Location(x, y - 1), new Location(x, y));
+                }
+            }
+        }
+        region = builder.build();
+    }
+
+    @Test
+    public void testInterpolation() {
+        Region.Edge edge = region.getEdge(new Location(0, 0), new Location(1, 0));
+        Region.Edge constant = region.getEdge(new Location(0, 0), new Location(0, 1));
+        TravelTimeTable travelTimes = TravelTimeTable.builder(region, DAY, 6, 8, 18)
+            .profile(edge, 2, 10, 4)
+            .build();
+
+        assertEquals(2, travelTimes.getDuration(edge, 6));
+        assertEquals(6, travelTimes.getDuration(edge, 7));
+        assertEquals(10, travelTimes.getDuration(edge, 8));
+        // 10 - 6 * 3 / 10 = 8.2 is rounded up
+        assertEquals(9, travelTimes.getDuration(edge, 11));
+        assertEquals(4, travelTimes.getDuration(edge, 18));
+        // from 4 at tick 18 to 2 at tick 6 of the next day
+        assertEquals(3, travelTimes.getDuration(edge, 0));
+        assertEquals(3, travelTimes.getDuration(edge, DAY));
+        assertEquals(travelTimes.getDuration(edge, 11), travelTimes.getDuration(edge, 11 - 3 * DAY));
+        assertEquals(constant.getDuration(), travelTimes.getDuration(constant, 7));
+        assertEquals(2, travelTimes.getMinDuration(travelTimes.getCompiledRegion().requireEdgeId(edge)));
+    }
+
+    @Test
+    public void testInvalidProfiles() {
+        Region.Edge edge = region.getEdge(new Location(0, 0), new Location(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> TravelTimeTable.builder(region, DAY, 6, 6));
+        assertThrows(IllegalArgumentException.class, () -> TravelTimeTable.builder(region, DAY, DAY));
+        assertThrows(IllegalArgumentException.class, () -> TravelTimeTable.builder(region, 0, 0));
+        TravelTimeTable.Builder builder = TravelTimeTable.builder(region, DAY, 6, 8);
+        assertThrows(IllegalArgumentException.class, () -> builder.profile(edge, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.profile(edge, -1, 1));
+        // leaving at tick 6 would arrive at tick 11, leaving at tick 8 at tick 10
+        assertThrows(IllegalArgumentException.class, () -> builder.profile(edge, 5, 2));
+        builder.profile(edge, 4, 2);
+    }
+
+    @Test
+    public void testSharedProfiles() {
+        TravelTimeTable.Builder builder = TravelTimeTable.builder(region, DAY, 0, 7, 9, 16, 18);
+        for (Region.Edge edge : region.getEdges()) {
+            if (edge.getName().startsWith("H")) {
+                builder.profile(edge, 1, 3, 1, 3, 1);
+            } else {
+                builder.profile(edge, 2, 2, 2, 2, 2);
+            }
+        }
+        assertEquals(2, builder.build().profileCount());
+    }
+
+    @Test
+    public void testFastestPaths() {
+        Random random = new Random(42);
+        TravelTimeTable.Builder builder = TravelTimeTable.builder(region, DAY, 0, 6, 12, 18);
+        for (Region.Edge edge : region.getEdges()) {
+            long morning = 1 + random.nextInt(8);
+            builder.profile(edge, 1, morning, Math.max(1, morning - 6), 1 + random.nextInt(4));
+        }
+        TravelTimeTable travelTimes = builder.build();
+        TimeDependentPathCalculator pathCalculator = new TimeDependentPathCalculator(travelTimes);
+        List<Region.Node> nodes = List.copyOf(region.getNodes());
+
+        for (long departure = 0; departure < DAY; departure += 5) {
+            for (Region.Node start : nodes) {
+                Map<Region.Node, Long> arrivalTicks = pathCalculator.getArrivalTicks(start, departure);
+                assertEquals(nodes.size(), arrivalTicks.size());
+                for (Region.Node end : nodes) {
+                    long expected = arrivalTicks.get(end);
+                    assertEquals(expected, pathCalculator.getArrivalTick(start, end, departure));
+                    assertEquals(expected, arrivalTick(travelTimes, start, pathCalculator.getPath(start, end, departure), departure));
+                }
+            }
+        }
+    }
+
+    private static long arrivalTick(TravelTimeTable travelTimes, Region.Node start, Deque<Region.Node> path, long departure) {
+        long tick = departure;
+        Region.Node previous = start;
+        for (Region.Node node : path) {
+            tick += travelTimes.getDuration(previous.getEdge(node), tick);
+            previous = node;
+        }
+        return tick;
+    }
+}
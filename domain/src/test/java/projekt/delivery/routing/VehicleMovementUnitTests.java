@@ -0,0 +1,177 @@
+package projekt.delivery.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+import projekt.delivery.event.ArrivedAtEdgeEvent;
+import projekt.delivery.event.ArrivedAtNodeEvent;
+import projekt.delivery.event.Event;
+import projekt.delivery.event.SpawnEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VehicleMovementUnitTests {
+
+    private Region region;
+    private VehicleManager vehicleManager;
+
+    @BeforeEach
+    public void initialize() {
+        region = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            // the duration of an edge is its length
+            .durationFunction((a, b) -> Math.abs(b.getX() - a.getX()))
+            .addRestaurant("A", new Location(0, 0), List.of("Pizza"))
+            .addNode("B", new Location(1, 0))
+            .addNode("C", new Location(3, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .addEdge("BC", new Location(1, 0), new Location(3, 0))
+            .build();
+        vehicleManager = VehicleManager.builder()
+            .region(region)
+            .pathCalculator(new DijkstraPathCalculator())
+            .addVehicle(new Location(0, 0), 10)
+            .addVehicle(new Location(0, 0), 10)
+            .build();
+    }
+
+    @Test
+    public void testMovementTicks() {
+        assertTrue(vehicleManager.tick(0).stream().allMatch(SpawnEvent.class::isInstance));
+        Vehicle vehicle = vehicleManager.getVehicles().stream().filter(v -> v.getId() == 0).findFirst().orElseThrow();
+        List<Long> arrivalActions = new ArrayList<>();
+        vehicle.moveQueued(region.getNode(new Location(3, 0)), (v, tick) -> arrivalActions.add(tick));
+
+        List<String> movements = new ArrayList<>();
+        for (long tick = 1; tick <= 8; tick++) {
+            for (Event event : vehicleManager.tick(tick)) {
+                if (event instanceof ArrivedAtEdgeEvent edgeEvent) {
+                    assertEquals(0, edgeEvent.getVehicle().getId());
+                    movements.add(tick + ":" + edgeEvent.getEdge().getName());
+                } else if (event instanceof ArrivedAtNodeEvent nodeEvent) {
+                    assertEquals(0, nodeEvent.getVehicle().getId());
+                    movements.add(tick + ":" + nodeEvent.getNode().getName());
+                } else {
+                    fail("Unexpected event " + event);
+                }
+            }
+        }
+        assertEquals(List.of("1:AB", "2:B", "3:BC", "5:C"), movements);
+        assertEquals(List.of(6L), arrivalActions);
+        assertTrue(vehicle.getPaths().isEmpty());
+        assertEquals(region.getNode(new Location(3, 0)), vehicle.getOccupied().getComponent());
+        assertEquals(region.getEdge(new Location(1, 0), new Location(3, 0)), vehicle.getPreviousOccupied().getComponent());
+        assertEquals(List.of(vehicle), List.copyOf(vehicleManager.getOccupied(region.getNode(new Location(3, 0))).getVehicles()));
+    }
+
+    @Test
+    public void testSkippedTicks() {
+        Region region = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            // longer than a round of the timing wheel
+            .durationFunction((a, b) -> 1000 * Math.abs(b.getX() - a.getX()))
+            .addRestaurant("A", new Location(0, 0), List.of("Pizza"))
+            .addNode("B", new Location(1, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .build();
+        VehicleManagerImpl vehicleManager = (VehicleManagerImpl) VehicleManager.builder()
+            .region(region)
+            .pathCalculator(new DijkstraPathCalculator())
+            .addVehicle(new Location(0, 0), 10)
+            .build();
+        MovementScheduler scheduler = vehicleManager.scheduler;
+        vehicleManager.tick(0);
+        assertEquals(-1, scheduler.nextTick(1));
+
+        Vehicle vehicle = vehicleManager.getVehicles().iterator().next();
+        vehicle.moveQueued(region.getNode(new Location(1, 0)));
+        assertEquals(1, scheduler.nextTick(1));
+        vehicleManager.tick(1);
+        assertEquals(1001, scheduler.nextTick(2));
+        // only the slot of tick 1001 is left, every other tick can be skipped
+        List<Event> events = vehicleManager.tick(1001);
+        assertEquals(1, events.size());
+        assertInstanceOf(ArrivedAtNodeEvent.class, events.get(0));
+        assertEquals(region.getNode(new Location(1, 0)), vehicle.getOccupied().getComponent());
+    }
+
+    @Test
+    public void testParallelMovement() {
+        assertEquals(simulateGrid(1), simulateGrid(4));
+        assertThrows(IllegalArgumentException.class, () -> VehicleManager.builder().parallelism(0));
+    }
+
+    /**
+     * Moves enough vehicles through a grid to be moved in parallel and returns the events of every tick in order.
+     */
+    private static List<String> simulateGrid(int parallelism) {
+        int size = 20;
+        Region.Builder builder = Region.builder().distanceCalculator(new EuclideanDistanceCalculator());
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if ((x + y) % 7 == 0) {
+                    builder.addRestaurant("R" + x + "_" + y, new Location(x, y), List.of("Pizza"));
+                } else {
+                    builder.addNode("N" + x + "_" + y, new Location(x, y));
+                }
+                if (x > 0) {
+                    builder.addEdge("H" + x + "_" + y, new Location(x - 1, y), new Location(x, y));
+                }
+                if (y > 0) {
+                    builder.addEdge("V" + x + "_" + y, new Location(x, y - 1), new Location(x, y));
+                }
+            }
+        }
+        Region region = builder.build();
+        List<Region.Node> nodes = region.getNodes().stream().sorted(Comparator.comparing(Region.Node::getLocation)).toList();
+        List<Region.Node> restaurants = nodes.stream().filter(Region.Restaurant.class::isInstance).toList();
+        VehicleManager.Builder vehicleManagerBuilder = VehicleManager.builder()
+            .region(region)
+            .pathCalculator(new DijkstraPathCalculator())
+            .parallelism(parallelism);
+        for (int i = 0; i < 600; i++) {
+            vehicleManagerBuilder.addVehicle(restaurants.get(i % restaurants.size()).getLocation(), 10);
+        }
+        VehicleManager vehicleManager = vehicleManagerBuilder.build();
+
+        List<String> events = new ArrayList<>();
+        List<String> arrivals = new ArrayList<>();
+        Random random = new Random(42);
+        for (long tick = 0; tick < 60; tick++) {
+            events.add(vehicleManager.tick(tick).toString());
+            if (tick == 0) {
+                List<Vehicle> vehicles = vehicleManager.getVehicles().stream().sorted().toList();
+                for (Vehicle vehicle : vehicles) {
+                    Region.Node target = nodes.get(random.nextInt(nodes.size()));
+                    if (!target.equals(vehicle.getStartingNode().getComponent())) {
+                        vehicle.moveQueued(target, (v, t) -> arrivals.add(v.getId() + "@" + t));
+                    }
+                }
+            }
+        }
+        events.add(arrivals.toString());
+        return events;
+    }
+
+    @Test
+    public void testResetForgetsMovements() {
+        vehicleManager.tick(0);
+        Vehicle vehicle = vehicleManager.getVehicles().iterator().next();
+        vehicle.moveQueued(region.getNode(new Location(3, 0)));
+        vehicleManager.tick(1);
+        assertInstanceOf(Region.Edge.class, vehicle.getOccupied().getComponent());
+
+        vehicleManager.reset();
+        assertTrue(vehicleManager.tick(2).stream().allMatch(SpawnEvent.class::isInstance));
+        for (long tick = 3; tick < 10; tick++) {
+            assertEquals(List.of(), vehicleManager.tick(tick));
+        }
+        assertEquals(region.getNode(new Location(0, 0)), vehicle.getOccupied().getComponent());
+    }
+}
@@ -0,0 +1,115 @@
+package projekt.delivery.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projekt.base.EuclideanDistanceCalculator;
+import projekt.base.Location;
+import projekt.base.TickInterval;
+import projekt.delivery.event.ArrivedAtNodeEvent;
+import projekt.delivery.event.Event;
+import projekt.delivery.event.OrderReceivedEvent;
+import projekt.delivery.generator.OrderGenerator;
+import projekt.delivery.routing.ConfirmedOrder;
+import projekt.delivery.routing.DijkstraPathCalculator;
+import projekt.delivery.routing.Region;
+import projekt.delivery.routing.VehicleManager;
+import projekt.delivery.service.AbstractDeliveryService;
+import projekt.delivery.service.DeliveryService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasicDeliverySimulationUnitTests {
+
+    private static final long ORDER_TICK = 100;
+    private static final long EDGE_DURATION = 50;
+
+    private VehicleManager vehicleManager;
+    private Region.Node neighborhood;
+
+    @BeforeEach
+    public void initialize() {
+        Region region = Region.builder()
+            .distanceCalculator(new EuclideanDistanceCalculator())
+            .durationFunction((a, b) -> EDGE_DURATION)
+            .addRestaurant("A", new Location(0, 0), List.of("Pizza"))
+            .addNeighborhood("B", new Location(1, 0))
+            .addEdge("AB", new Location(0, 0), new Location(1, 0))
+            .build();
+        vehicleManager = VehicleManager.builder()
+            .region(region)
+            .pathCalculator(new DijkstraPathCalculator())
+            .addVehicle(new Location(0, 0), 10)
+            .build();
+        neighborhood = region.getNode(new Location(1, 0));
+    }
+
+    @Test
+    public void testFastForwardSkipsIdleTicks() {
+        SimulationConfig simulationConfig = new SimulationConfig(1000);
+        simulationConfig.setFastForward(true);
+        BasicDeliverySimulation simulation = new BasicDeliverySimulation(simulationConfig, Map.of(),
+            new MovingDeliveryService(vehicleManager), this::createOrderGenerator);
+        List<Long> ticks = new ArrayList<>();
+        List<Event> events = new ArrayList<>();
+        simulation.addListener((tickEvents, tick) -> {
+            ticks.add(tick);
+            events.addAll(tickEvents);
+        });
+
+        simulation.runSimulation(1000);
+
+        // spawn, order, entering the edge, arriving at the neighborhood, finishing the path and the last tick
+        long arrival = ORDER_TICK + 1 + EDGE_DURATION;
+        assertEquals(List.of(0L, ORDER_TICK, ORDER_TICK + 1, arrival, arrival + 1, 999L), ticks);
+        assertTrue(events.stream().anyMatch(event -> event instanceof OrderReceivedEvent && event.getTick() == ORDER_TICK));
+        assertTrue(events.stream().anyMatch(event -> event instanceof ArrivedAtNodeEvent && event.getTick() == arrival));
+        assertEquals(1000, simulation.getCurrentTick());
+    }
+
+    private OrderGenerator createOrderGenerator() {
+        return new OrderGenerator() {
+            @Override
+            public List<ConfirmedOrder> generateOrders(long tick) {
+                if (tick != ORDER_TICK) {
+                    return List.of();
+                }
+                VehicleManager.OccupiedRestaurant restaurant = vehicleManager.getOccupiedRestaurants().iterator().next();
+                return List.of(new ConfirmedOrder(neighborhood.getLocation(), restaurant,
+                    new TickInterval(tick, tick + 100), List.of("Pizza"), 1));
+            }
+
+            @Override
+            public long nextOrderTick(long fromTick) {
+                return fromTick <= ORDER_TICK ? ORDER_TICK : -1;
+            }
+        };
+    }
+
+    /**
+     * A {@link DeliveryService} sending the vehicle to the neighborhood when an order arrives.
+     */
+    private class MovingDeliveryService extends AbstractDeliveryService {
+
+        MovingDeliveryService(VehicleManager vehicleManager) {
+            super(vehicleManager);
+        }
+
+        @Override
+        protected List<Event> tick(long currentTick, List<ConfirmedOrder> newOrders) {
+            List<Event> events = vehicleManager.tick(currentTick);
+            if (!newOrders.isEmpty()) {
+                vehicleManager.getVehicles().iterator().next().moveQueued(neighborhood);
+            }
+            return events;
+        }
+
+        @Override
+        public List<ConfirmedOrder> getPendingOrders() {
+            return List.of();
+        }
+    }
+}
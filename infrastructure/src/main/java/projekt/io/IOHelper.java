@@ -1,6 +1,9 @@
 package projekt.io;
 
 import projekt.delivery.archetype.ProblemArchetype;
+import projekt.delivery.routing.CachedPathCalculator;
+import projekt.delivery.routing.ContractionHierarchyPathCalculator;
+import projekt.delivery.routing.PathCalculator;
 
 import java.io.*;
 import java.nio.file.Path;
@@ -13,6 +16,9 @@ public class IOHelper {
 
     public static final File PROBLEMS_DIR = Path.of(System.getProperty("user.dir"), "projekt", "gui", "problems").toFile();
 
+    private static final String PROBLEM_FILE_EXTENSION = ".txt";
+    private static final String HIERARCHY_FILE_EXTENSION = ".ch";
+
     /**
      * Copies the {@link ProblemArchetype} presets from the resource directory into the build directory.
      */
@@ -46,6 +52,7 @@ public class IOHelper {
 
     /**
      * Returns a {@link Set} of {@link File}s containing all {@link ProblemArchetype}s stored in the build dir (build/run/projekt/gui/problems).
+     * Other files in this directory, e.g. stored contraction hierarchies, are ignored.
      *
      * @return A {@link Set} of {@link File}s containing all {@link ProblemArchetype}s stored in the build dir.
      */
@@ -57,7 +64,8 @@ public class IOHelper {
             dir.mkdirs();
         }
 
-        return new HashSet<>(Arrays.asList(Objects.requireNonNull(dir.listFiles())));
+        return new HashSet<>(Arrays.asList(Objects.requireNonNull(
+            dir.listFiles((parent, name) -> name.endsWith(PROBLEM_FILE_EXTENSION)))));
     }
 
     private static List<ProblemArchetype> readProblemsInFiles(Set<File> files) {
@@ -65,7 +73,9 @@ public class IOHelper {
 
         for (File file : files) {
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                problems.add(ProblemArchetypeIO.readProblemArchetype(reader));
+                ProblemArchetype problem = ProblemArchetypeIO.readProblemArchetype(reader);
+                attachHierarchyFile(problem, file);
+                problems.add(problem);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -89,7 +99,7 @@ public class IOHelper {
             PROBLEMS_DIR.mkdirs();
         }
 
-        File file = Path.of(PROBLEMS_DIR.getPath(), problem.name() + ".txt").toFile();
+        File file = Path.of(PROBLEMS_DIR.getPath(), problem.name() + PROBLEM_FILE_EXTENSION).toFile();
 
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
             file.createNewFile();
@@ -97,5 +107,25 @@ public class IOHelper {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        attachHierarchyFile(problem, file);
+    }
+
+    /**
+     * Lets a {@link ContractionHierarchyPathCalculator} used by the given {@link ProblemArchetype} load and store its
+     * hierarchy in a file next to the given problem file, so the region only has to be preprocessed once.
+     *
+     * @param problem     The {@link ProblemArchetype} that was read from or written to {@code problemFile}.
+     * @param problemFile The file containing the {@link ProblemArchetype}.
+     */
+    private static void attachHierarchyFile(ProblemArchetype problem, File problemFile) {
+        PathCalculator pathCalculator = problem.vehicleManager().getPathCalculator();
+        while (pathCalculator instanceof CachedPathCalculator cachedPathCalculator) {
+            pathCalculator = cachedPathCalculator.getDelegate();
+        }
+        if (pathCalculator instanceof ContractionHierarchyPathCalculator contractionHierarchyPathCalculator) {
+            String name = problemFile.getName();
+            String hierarchyName = name.substring(0, name.length() - PROBLEM_FILE_EXTENSION.length()) + HIERARCHY_FILE_EXTENSION;
+            contractionHierarchyPathCalculator.setHierarchyFile(problemFile.toPath().resolveSibling(hierarchyName));
+        }
     }
 }
@@ -18,7 +18,7 @@ public class RegionIO {
     );
 
     public static Region readRegion(BufferedReader reader) {
-        Region.Builder builder = Region.builder();
+        Region.Builder builder = Region.bulkBuilder();
 
         try {
 
@@ -14,7 +14,12 @@ public class VehicleManagerIO {
 
     private static final Map<String, Function<Object, ? extends PathCalculator>> DESERIALIZED_PATH_CALCULATOR = Map.of(
         CachedPathCalculator.class.getSimpleName(), pathCalculator -> new CachedPathCalculator((PathCalculator) pathCalculator),
-        DijkstraPathCalculator.class.getSimpleName(), ignored -> new DijkstraPathCalculator()
+        DijkstraPathCalculator.class.getSimpleName(), ignored -> new DijkstraPathCalculator(),
+        CompiledDijkstraPathCalculator.class.getSimpleName(), ignored -> new CompiledDijkstraPathCalculator(),
+        AStarPathCalculator.class.getSimpleName(), ignored -> new AStarPathCalculator(),
+        BidirectionalAStarPathCalculator.class.getSimpleName(), ignored -> new BidirectionalAStarPathCalculator(),
+        ContractionHierarchyPathCalculator.class.getSimpleName(), ignored -> new ContractionHierarchyPathCalculator(),
+        DistanceMatrixPathCalculator.class.getSimpleName(), ignored -> new DistanceMatrixPathCalculator()
     );
 
     public static VehicleManager readVehicleManager(BufferedReader reader, Region region) {